@@ -0,0 +1,120 @@
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * "What's next" view: the next N tasks and holidays from any date.
+ *
+ * Both maps are date-ordered, so a page seeks straight to the start date
+ * (tailMap) and lazily merges the two streams, stopping after N items.
+ * Cost is O(log n + N) no matter how big the calendar is.
+ */
+public class Agenda {
+
+    /** One line of the agenda. */
+    public static class Item {
+        public final LocalDate date;
+        public final String text;
+        public final boolean holiday;
+
+        Item(LocalDate date, String text, boolean holiday) {
+            this.date = date;
+            this.text = text;
+            this.holiday = holiday;
+        }
+
+        @Override
+        public String toString() {
+            return holiday ? date + ": [" + text + "]" : date + ": " + text;
+        }
+    }
+
+    /** A page of results plus the cursor to continue from (null when there is nothing left). */
+    public static class Page {
+        public final List<Item> items;
+        public final String nextCursor;
+
+        Page(List<Item> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+    }
+
+    /** First page of the agenda starting at the given date (inclusive). */
+    public static Page next(LocalDate from, int count) {
+        return page(from, 0, count);
+    }
+
+    /** Continue from a cursor returned by a previous page. */
+    public static Page next(String cursor, int count) {
+        String[] parts = cursor.split(":", 2);
+        try {
+            return page(LocalDate.parse(parts[0]), Integer.parseInt(parts[1]), count);
+        } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid agenda cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Merge tasks and holidays from 'from' onwards. On the same date the holiday
+     * comes first. 'skip' is how many items on 'from' were already returned.
+     */
+    private static Page page(LocalDate from, int skip, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        int startSkip = skip;
+        Iterator<Map.Entry<LocalDate, String>> holidays = tail(HolidayManager.getHolidays(), from);
+        Iterator<Map.Entry<LocalDate, String>> tasks = tail(TaskManager.getTasks(), from);
+        Map.Entry<LocalDate, String> h = holidays.hasNext() ? holidays.next() : null;
+        Map.Entry<LocalDate, String> t = tasks.hasNext() ? tasks.next() : null;
+
+        List<Item> items = new ArrayList<>();
+        LocalDate lastDate = null;
+        int sameDate = 0;
+        while ((h != null || t != null) && items.size() < count) {
+            Item item;
+            if (t == null || (h != null && !h.getKey().isAfter(t.getKey()))) {
+                item = new Item(h.getKey(), h.getValue(), true);
+                h = holidays.hasNext() ? holidays.next() : null;
+            } else {
+                item = new Item(t.getKey(), t.getValue(), false);
+                t = tasks.hasNext() ? tasks.next() : null;
+            }
+
+            if (item.date.equals(from) && skip > 0) {
+                skip--;
+                sameDate++;
+                lastDate = item.date;
+                continue;
+            }
+            sameDate = item.date.equals(lastDate) ? sameDate + 1 : 1;
+            lastDate = item.date;
+            items.add(item);
+        }
+
+        String cursor = (h == null && t == null) ? null : lastDate + ":" + sameDate;
+        if (lastDate == null && cursor != null) {
+            cursor = from + ":" + startSkip;
+        }
+        return new Page(items, cursor);
+    }
+
+    private static Iterator<Map.Entry<LocalDate, String>> tail(NavigableMap<LocalDate, String> map, LocalDate from) {
+        return map.tailMap(from, true).entrySet().iterator();
+    }
+
+    /** Prints a page to the console. */
+    public static void print(Page page) {
+        if (page.items.isEmpty()) {
+            System.out.println("Nothing coming up.");
+        }
+        for (Item item : page.items) {
+            System.out.println(item);
+        }
+    }
+}
@@ -1,4 +1,6 @@
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.YearMonth;
 import java.time.Month;
 import java.time.format.DateTimeFormatter;
@@ -6,14 +8,97 @@ import java.time.format.DateTimeParseException;
 import java.time.format.TextStyle;
 import java.time.DateTimeException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 public class CalendarDisplay {
 
     private static final Scanner scanner = new Scanner(System.in);
+    private static final int PAGE_SIZE = 20;
+
+    // Rendered month grids, least recently used dropped first; a month is
+    // also dropped when a task in it changes
+    private static final int RENDER_CACHE_SIZE = 24;
+    private static final Map<YearMonth, String> renderedMonths = Collections.synchronizedMap(
+            new LinkedHashMap<YearMonth, String>(32, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<YearMonth, String> eldest) {
+                    return size() > RENDER_CACHE_SIZE;
+                }
+            });
+    // Pre-renders the months next to the one on screen, behind the menu's back
+    private static final ExecutorService prefetcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "month-prefetch");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private static final Set<YearMonth> prefetching = ConcurrentHashMap.newKeySet();
+    // Bumped on every change so a render that raced with a change is not cached
+    private static final AtomicLong changeCount = new AtomicLong();
+
+    static {
+        TaskManager.addListener(CalendarDisplay::tasksChanged);
+    }
+
+    private static void tasksChanged(List<TaskEvent> events) {
+        changeCount.incrementAndGet();
+        for (TaskEvent event : events) {
+            if (event.type == TaskEvent.Type.RELOADED) {
+                renderedMonths.clear();
+            } else {
+                renderedMonths.remove(event.month());
+            }
+        }
+    }
+
+    /** Heap estimate for the rendered-month cache. */
+    static MemoryFootprint.Item footprint() {
+        long text;
+        int n;
+        synchronized (renderedMonths) {
+            n = renderedMonths.size();
+            text = MemoryFootprint.strings(renderedMonths.values());
+        }
+        long keys = n * MemoryFootprint.align(MemoryFootprint.HEADER + 4 + 4);  // YearMonth
+        long overhead = MemoryFootprint.hashMap(n) + n * 2L * MemoryFootprint.REF;  // LinkedHashMap links
+        return new MemoryFootprint.Item("Rendered month cache", n, keys, text, overhead);
+    }
+
+    /**
+     * Render the previous and next month in the background (their tasks and
+     * holidays are loaded on the way), so stepping to either is served from
+     * the cache.
+     */
+    static void prefetchAround(YearMonth month) {
+        for (YearMonth neighbour : new YearMonth[] {month.plusMonths(1), month.minusMonths(1)}) {
+            if (!renderedMonths.containsKey(neighbour) && prefetching.add(neighbour)) {
+                prefetcher.execute(() -> {
+                    try {
+                        renderCalendar(neighbour.getYear(), neighbour.getMonthValue());
+                    } catch (RuntimeException e) {
+                        // Only a warm-up; the real render reports errors
+                    } finally {
+                        prefetching.remove(neighbour);
+                    }
+                });
+            }
+        }
+    }
 
     /**
      * Repeatedly prompts the user until a valid integer is provided.
@@ -63,6 +148,66 @@ public class CalendarDisplay {
         }
     }
 
+    /**
+     * Like parseDateInput, but an empty line means "no date".
+     * @param prompt The text to show before reading input.
+     * @return The date, or null if the user just pressed Enter.
+     */
+    private static LocalDate parseOptionalDateInput(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(input);
+            } catch (DateTimeParseException e) {
+                System.out.println("Invalid date format. Try: yyyy-MM-dd");
+            }
+        }
+    }
+
+    /**
+     * Repeatedly prompts until a valid HH:mm time is given.
+     * @param prompt The text to show before reading input.
+     * @return The time, or null if the user just pressed Enter.
+     */
+    private static LocalTime parseTimeInput(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalTime.parse(input);
+            } catch (DateTimeParseException e) {
+                System.out.println("Invalid time. Try: 09:30, 14:00, etc.");
+            }
+        }
+    }
+
+    /**
+     * Repeatedly prompts until a priority name is given (Enter means NORMAL).
+     * @param prompt The text to show before reading input.
+     * @return The chosen priority.
+     */
+    private static Task.Priority parsePriorityInput(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                return Task.Priority.NORMAL;
+            }
+            try {
+                return Task.Priority.valueOf(input.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Invalid priority. Try: low, normal, high, urgent.");
+            }
+        }
+    }
+
     /**
      * Displays a textual calendar for the given year and month.
      * Highlights holidays ([DD]) and tasks (*DD*) if present.
@@ -73,56 +218,83 @@ public class CalendarDisplay {
                 System.out.println("Invalid month. Must be 1–12.");
                 return;
             }
+            System.out.print(renderCalendar(year, month));
+            prefetchAround(YearMonth.of(year, month));
+        } catch (DateTimeException e) {
+            System.out.println("Error displaying calendar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the exact text that displayCalendar prints, so other views
+     * (e.g. the full-screen mode) can reuse the grid without printing it.
+     * Cached per month until a task in that month changes.
+     */
+    static String renderCalendar(int year, int month) {
+        YearMonth key = YearMonth.of(year, month);
+        String cached = renderedMonths.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long before = changeCount.get();
+        String text = buildCalendar(year, month);
+        if (TaskManager.isLoaded() && changeCount.get() == before) {
+            renderedMonths.put(key, text);
+        }
+        return text;
+    }
 
-            Month selectedMonth = Month.of(month);
-            System.out.println("\n===== "
-                    + selectedMonth.getDisplayName(TextStyle.FULL, Locale.ENGLISH)
-                    + " " + year + " =====");
-            System.out.println("Sun Mon Tue Wed Thu Fri Sat");
+    private static String buildCalendar(int year, int month) {
+        StringBuilder out = new StringBuilder();
+        Month selectedMonth = Month.of(month);
+        out.append("\n===== ")
+                .append(selectedMonth.getDisplayName(TextStyle.FULL, Locale.ENGLISH))
+                .append(" ").append(year).append(" =====\n");
+        out.append("Sun Mon Tue Wed Thu Fri Sat\n");
 
-            YearMonth yearMonth = YearMonth.of(year, month);
-            int daysInMonth = yearMonth.lengthOfMonth();
+        YearMonth yearMonth = YearMonth.of(year, month);
+        int daysInMonth = yearMonth.lengthOfMonth();
 
-            // dayOfWeek: 1=Mon, 7=Sun
-            int firstDayOfWeek = yearMonth.atDay(1).getDayOfWeek().getValue();
-            // Convert so Sunday=1, Monday=2, etc.
-            firstDayOfWeek = (firstDayOfWeek % 7) + 1;
+        // dayOfWeek: 1=Mon, 7=Sun
+        int firstDayOfWeek = yearMonth.atDay(1).getDayOfWeek().getValue();
+        // Convert so Sunday=1, Monday=2, etc.
+        firstDayOfWeek = (firstDayOfWeek % 7) + 1;
 
-            // Print leading spaces
-            for (int i = 1; i < firstDayOfWeek; i++) {
-                System.out.print("    ");
-            }
+        // Leading spaces
+        for (int i = 1; i < firstDayOfWeek; i++) {
+            out.append("    ");
+        }
 
-            // Print each day
-            for (int day = 1; day <= daysInMonth; day++) {
-                LocalDate currentDate = LocalDate.of(year, month, day);
+        // Only waits for this month's tasks if they are still loading
+        Map<LocalDate, String> monthTasks = TaskManager.getTasksForMonth(yearMonth);
 
-                // Check if holiday
-                if (HolidayManager.getHolidays().containsKey(currentDate)) {
-                    System.out.printf("[%2d]", day); // highlight holiday
-                }
-                // Check if task
-                else if (TaskManager.getTasks() != null
-                        && TaskManager.getTasks().containsKey(currentDate)) {
-                    System.out.printf("*%2d*", day); // highlight task date
-                } else {
-                    System.out.printf("%3d ", day);
-                }
+        // Each day
+        for (int day = 1; day <= daysInMonth; day++) {
+            LocalDate currentDate = LocalDate.of(year, month, day);
 
-                // New line after Saturday
-                if ((day + firstDayOfWeek - 1) % 7 == 0) {
-                    System.out.println();
-                }
+            // Check if holiday
+            if (HolidayManager.getHolidays().containsKey(currentDate)) {
+                out.append(String.format("[%2d]", day)); // highlight holiday
+            }
+            // Check if task
+            else if (monthTasks.containsKey(currentDate)) {
+                out.append(String.format("*%2d*", day)); // highlight task date
+            } else {
+                out.append(String.format("%3d ", day));
             }
 
-            System.out.println();
-        } catch (DateTimeException e) {
-            System.out.println("Error displaying calendar: " + e.getMessage());
+            // New line after Saturday
+            if ((day + firstDayOfWeek - 1) % 7 == 0) {
+                out.append("\n");
+            }
         }
+
+        out.append("\n");
+        return out.toString();
     }
 
     /**
-     * View tasks for the specified month & year,
+     * View tasks for the specified month & year, a page at a time,
      * printing them if they exist or a message if not.
      */
     public static void viewTasksByMonth(int year, int month) {
@@ -130,26 +302,42 @@ public class CalendarDisplay {
                 + Month.of(month).getDisplayName(TextStyle.FULL, Locale.ENGLISH)
                 + " " + year + " =====");
 
-        boolean tasksFound = false;
-        if (TaskManager.getTasks() != null) {
-            for (Map.Entry<LocalDate, String> entry : TaskManager.getTasks().entrySet()) {
-                LocalDate taskDate = entry.getKey();
-                if (taskDate.getYear() == year && taskDate.getMonthValue() == month) {
-                    System.out.println(taskDate + ": " + entry.getValue());
-                    tasksFound = true;
-                }
-            }
-        }
+        // One page at a time, so a busy month does not flood the console
+        printPages(TaskPager.month(YearMonth.of(year, month), PAGE_SIZE), "No tasks for this month.");
+    }
+
+    /** View the tasks of one day, a page at a time, like viewTasksByMonth. */
+    public static void viewTasksForDay(LocalDate date) {
+        System.out.println("\n===== Tasks for " + date + " =====");
+        printPages(TaskPager.day(date, PAGE_SIZE),
+                date.equals(LocalDate.now()) ? "No tasks for today." : "No tasks for this day.");
+    }
 
-        if (!tasksFound) {
-            System.out.println("No tasks for this month.");
+    /** Print a page, then the following ones while the user presses Enter. */
+    private static void printPages(TaskPager.Page page, String emptyMessage) {
+        if (page.tasks.isEmpty()) {
+            System.out.println(emptyMessage);
+        }
+        while (true) {
+            for (Task task : page.tasks) {
+                System.out.println(task.date + ": " + task.text);
+            }
+            if (page.nextCursor == null) {
+                break;
+            }
+            System.out.print("Press Enter for more, or type q to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                break;
+            }
+            CommandLog.record("page", page.nextCursor);
+            page = TaskPager.next(page.nextCursor, PAGE_SIZE);
         }
     }
 
     public static void main(String[] args) {
-        // Initialize holidays & tasks
-        HolidayManager.loadHolidays();
-        TaskManager.loadTasks();
+        // Load holidays & tasks in the background; the menu shows right away
+        // and reminders start once tasks are in
+        Startup.begin();
 
         while (true) {
             System.out.println("\n1. View Calendar");
@@ -159,6 +347,14 @@ public class CalendarDisplay {
             System.out.println("5. Delete Task by Name");
             System.out.println("6. Exit");
             System.out.println("7. Import Tasks from .txt file (merge)");
+            System.out.println("8. Full-screen Calendar (arrow keys)");
+            System.out.println("9. Agenda (what's next)");
+            System.out.println("10. Task Statistics & Heatmap");
+            System.out.println("11. Priorities & Status");
+            System.out.println("12. Schedule (overlaps & free slots)");
+            System.out.println("13. Search Tasks");
+            System.out.println("14. Bulk Delete (pattern / date range)");
+            System.out.println("15. Memory Footprint");
 
             // parse menu choice
             int choice = parseIntegerInput("Enter your choice: ");
@@ -167,6 +363,7 @@ public class CalendarDisplay {
                 // View Calendar
                 int year = parseIntegerInput("Enter year: ");
                 int month = parseIntegerInput("Enter month (1–12): ");
+                CommandLog.record("calendar", year, month);
                 displayCalendar(year, month);
             }
             else if (choice == 2) {
@@ -174,23 +371,70 @@ public class CalendarDisplay {
                 LocalDate date = parseDateInput("Enter date (e.g., 2025-01-24, 2025 01 24, Jan 24, 2025, etc.): ");
                 System.out.print("Enter task: ");
                 String task = scanner.nextLine();
-                TaskManager.addTask(date, task);
-                System.out.println("Task added successfully.");
+                Task.Priority priority = parsePriorityInput("Priority (low/normal/high/urgent, Enter for normal): ");
+                System.out.print("Tags (comma separated, optional): ");
+                Set<String> tags = new LinkedHashSet<>();
+                for (String tag : scanner.nextLine().split(",")) {
+                    if (!tag.trim().isEmpty()) {
+                        tags.add(tag.trim());
+                    }
+                }
+                LocalTime start = parseTimeInput("Start time (HH:mm, Enter for all day): ");
+                LocalDateTime end = null;
+                System.out.print("End (HH:mm, or yyyy-MM-dd HH:mm for a later day, Enter for end of day): ");
+                String endInput = scanner.nextLine().trim();
+                try {
+                    if (endInput.contains(" ")) {
+                        end = LocalDateTime.parse(endInput.replace(' ', 'T'));
+                    } else if (!endInput.isEmpty()) {
+                        end = date.atTime(LocalTime.parse(endInput));
+                    }
+                } catch (DateTimeParseException e) {
+                    System.out.println("Invalid end, using end of day.");
+                }
+                Task newTask = new Task(date, task, priority, Task.Status.OPEN, tags, start, end);
+                if (!newTask.endDateTime().isAfter(newTask.startDateTime())) {
+                    System.out.println("End must be after start, using end of day.");
+                    newTask = newTask.withTimes(start, null);
+                }
+
+                // Warn about overlapping bookings before saving
+                List<Task> conflicts = Schedule.conflictsWith(newTask);
+                boolean add = true;
+                if (!conflicts.isEmpty()) {
+                    for (Task t : conflicts) {
+                        // One task per date: the one already on this date would be replaced
+                        System.out.println((t.date.equals(date) ? "Replaces: " : "Overlaps: ") + t);
+                    }
+                    System.out.print("Add anyway? (y/n): ");
+                    add = scanner.nextLine().trim().equalsIgnoreCase("y");
+                }
+                if (add) {
+                    CommandLog.record("add", newTask.date, newTask.toStored());
+                    TaskManager.addTask(newTask);
+                    System.out.println("Task added successfully.");
+                } else {
+                    System.out.println("Task not added.");
+                }
             }
             else if (choice == 3) {
                 // View today's tasks
-                TaskManager.viewTasksForToday();
+                LocalDate today = LocalDate.now();
+                CommandLog.record("today", today);
+                viewTasksForDay(today);
             }
             else if (choice == 4) {
                 // View tasks by a specific month/year
                 int year = parseIntegerInput("Enter year: ");
                 int month = parseIntegerInput("Enter month (1–12): ");
+                CommandLog.record("month", year, month);
                 viewTasksByMonth(year, month);
             }
             else if (choice == 5) {
                 // Delete task by name
                 System.out.print("Enter the name of the task to delete: ");
                 String taskName = scanner.nextLine();
+                CommandLog.record("delete", taskName);
                 boolean deleted = TaskManager.deleteTaskByName(taskName);
                 if (deleted) {
                     System.out.println("Task deleted successfully.");
@@ -206,13 +450,200 @@ public class CalendarDisplay {
             }
             else if (choice == 7) {
                 // Import tasks from a file
-                System.out.print("Enter file path to import (default: tasks.txt): ");
+                System.out.print("Enter file, directory or glob to import (default: tasks.txt): ");
                 String filePath = scanner.nextLine().trim();
                 if (filePath.isEmpty()) {
                     filePath = "tasks.txt";
                 }
-                int importedCount = TaskManager.importTasksFromFile(filePath);
-                System.out.println(importedCount + " tasks imported from '" + filePath + "'");
+                if (TaskImporter.isBulkPath(filePath)) {
+                    // Directory or glob: parallel bulk import with a merge policy
+                    System.out.println("If a date already has a task: 1. Keep existing  2. Overwrite  3. Keep both");
+                    int policyChoice = parseIntegerInput("Enter your choice: ");
+                    TaskImporter.MergePolicy policy = TaskImporter.MergePolicy.OVERWRITE;
+                    if (policyChoice == 1) {
+                        policy = TaskImporter.MergePolicy.KEEP_EXISTING;
+                    } else if (policyChoice == 3) {
+                        policy = TaskImporter.MergePolicy.KEEP_BOTH;
+                    }
+                    CommandLog.record("import-bulk", filePath, policy);
+                    TaskImporter.importAll(filePath, policy).print();
+                } else {
+                    CommandLog.record("import", filePath);
+                    int importedCount = TaskManager.importTasksFromFile(filePath);
+                    System.out.println(importedCount + " tasks imported from '" + filePath + "'");
+                }
+            }
+            else if (choice == 8) {
+                // ANSI full-screen mode, only changed cells are redrawn
+                LocalDate today = LocalDate.now();
+                FullScreenCalendar.run(today.getYear(), today.getMonthValue());
+            }
+            else if (choice == 9) {
+                // Next N tasks and holidays from a date, one page at a time
+                LocalDate from = parseDateInput("Start from date (e.g., 2025-01-24): ");
+                int count = parseIntegerInput("How many items per page: ");
+                while (count <= 0) {
+                    System.out.println("Must be at least 1.");
+                    count = parseIntegerInput("How many items per page: ");
+                }
+                CommandLog.record("agenda", from, count);
+                Agenda.Page page = Agenda.next(from, count);
+                Agenda.print(page);
+                while (page.nextCursor != null) {
+                    System.out.print("Press Enter for more, or type q to stop: ");
+                    if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                        break;
+                    }
+                    CommandLog.record("agenda-page", page.nextCursor, count);
+                    page = Agenda.next(page.nextCursor, count);
+                    Agenda.print(page);
+                }
+            }
+            else if (choice == 10) {
+                // Month totals, busiest months and a yearly heatmap
+                int year = parseIntegerInput("Enter year: ");
+                if (year < 1 || year > 9999) {
+                    System.out.println("Invalid year. Must be 1–9999.");
+                    continue;
+                }
+                TaskManager.awaitLoaded();
+                CommandLog.record("stats", year);
+                TaskStats.printYearReport(year);
+            }
+            else if (choice == 11) {
+                System.out.println("1. Top open tasks  2. Done tasks in a month  3. Mark task done/open  4. Set priority");
+                int sub = parseIntegerInput("Enter your choice: ");
+                if (sub == 1) {
+                    int k = parseIntegerInput("How many: ");
+                    CommandLog.record("top", k);
+                    List<Task> top = TaskIndex.topOpen(k);
+                    if (top.isEmpty()) {
+                        System.out.println("No open tasks.");
+                    }
+                    for (Task t : top) {
+                        System.out.println(t);
+                    }
+                } else if (sub == 2) {
+                    int year = parseIntegerInput("Enter year: ");
+                    int month = parseIntegerInput("Enter month (1–12): ");
+                    if (year < 1 || year > 9999) {
+                        System.out.println("Invalid year. Must be 1–9999.");
+                        continue;
+                    }
+                    if (month < 1 || month > 12) {
+                        System.out.println("Invalid month. Must be 1–12.");
+                        continue;
+                    }
+                    CommandLog.record("done", year, month);
+                    List<Task> done = TaskIndex.withStatus(Task.Status.DONE, YearMonth.of(year, month));
+                    if (done.isEmpty()) {
+                        System.out.println("No done tasks for this month.");
+                    }
+                    for (Task t : done) {
+                        System.out.println(t);
+                    }
+                } else if (sub == 3) {
+                    LocalDate date = parseDateInput("Enter date of the task: ");
+                    System.out.print("Mark as (done/open): ");
+                    Task.Status status = scanner.nextLine().trim().equalsIgnoreCase("open")
+                            ? Task.Status.OPEN : Task.Status.DONE;
+                    CommandLog.record("status", date, status);
+                    System.out.println(TaskManager.setStatus(date, status)
+                            ? "Task marked " + status + "." : "No task on that date.");
+                } else if (sub == 4) {
+                    LocalDate date = parseDateInput("Enter date of the task: ");
+                    Task.Priority priority = parsePriorityInput("Priority (low/normal/high/urgent): ");
+                    CommandLog.record("priority", date, priority);
+                    System.out.println(TaskManager.setPriority(date, priority)
+                            ? "Priority set to " + priority + "." : "No task on that date.");
+                } else {
+                    System.out.println("Invalid choice. Please try again.");
+                }
+            }
+            else if (choice == 12) {
+                System.out.println("1. What overlaps a time slot  2. Free slots in a week");
+                int sub = parseIntegerInput("Enter your choice: ");
+                if (sub == 1) {
+                    LocalDate date = parseDateInput("Enter date: ");
+                    LocalTime from = parseTimeInput("From (HH:mm, Enter for 00:00): ");
+                    LocalTime to = parseTimeInput("To (HH:mm, Enter for end of day): ");
+                    LocalDateTime slotStart = date.atTime(from == null ? LocalTime.MIDNIGHT : from);
+                    LocalDateTime slotEnd = to == null ? date.plusDays(1).atStartOfDay() : date.atTime(to);
+                    CommandLog.record("overlaps", slotStart, slotEnd);
+                    List<Task> overlaps = Schedule.overlapping(slotStart, slotEnd);
+                    if (overlaps.isEmpty()) {
+                        System.out.println("Nothing booked in that slot.");
+                    }
+                    for (Task t : overlaps) {
+                        System.out.println(t);
+                    }
+                } else if (sub == 2) {
+                    LocalDate date = parseDateInput("Any date in the week: ");
+                    LocalTime from = parseTimeInput("Day starts at (HH:mm, Enter for 09:00): ");
+                    LocalTime to = parseTimeInput("Day ends at (HH:mm, Enter for 17:00): ");
+                    LocalTime dayStart = from == null ? LocalTime.of(9, 0) : from;
+                    LocalTime dayEnd = to == null ? LocalTime.of(17, 0) : to;
+                    CommandLog.record("free-slots", date, dayStart, dayEnd);
+                    List<Schedule.Slot> slots = Schedule.freeSlotsInWeek(date, dayStart, dayEnd);
+                    if (slots.isEmpty()) {
+                        System.out.println("No free slots this week.");
+                    }
+                    for (Schedule.Slot slot : slots) {
+                        System.out.println(slot);
+                    }
+                } else {
+                    System.out.println("Invalid choice. Please try again.");
+                }
+            }
+            else if (choice == 13) {
+                System.out.println("e.g. month:2025-02 final -holiday status:open tag:school \"study group\"");
+                System.out.print("Search: ");
+                String query = scanner.nextLine().trim();
+                CommandLog.record("search", query);
+                TaskSearch.printResults(query);
+            }
+            else if (choice == 14) {
+                System.out.print("Task text (glob like *exam*, re:regex, Enter for any): ");
+                String spec = scanner.nextLine().trim();
+                Pattern pattern;
+                try {
+                    pattern = spec.isEmpty() ? null : TaskManager.textPattern(spec);
+                } catch (PatternSyntaxException e) {
+                    System.out.println("Invalid pattern: " + e.getDescription());
+                    continue;
+                }
+                LocalDate from = parseOptionalDateInput("From date (Enter for no limit): ");
+                LocalDate to = parseOptionalDateInput("To date (Enter for no limit): ");
+                if (pattern == null && from == null && to == null) {
+                    System.out.println("Give a pattern or a date range.");
+                    continue;
+                }
+                // Dry run first, then confirm
+                CommandLog.record("bulk-preview", spec, from, to);
+                Map<LocalDate, String> matches = TaskManager.deleteMatching(pattern, from, to, true);
+                if (matches.isEmpty()) {
+                    System.out.println("No matching tasks.");
+                    continue;
+                }
+                int shown = 0;
+                for (Map.Entry<LocalDate, String> entry : matches.entrySet()) {
+                    if (shown++ == 10) {
+                        System.out.println("... and " + (matches.size() - 10) + " more");
+                        break;
+                    }
+                    System.out.println(entry.getKey() + ": " + entry.getValue());
+                }
+                System.out.print("Delete these " + matches.size() + " task(s)? (y/n): ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                    CommandLog.record("bulk-delete", spec, from, to);
+                    int removed = TaskManager.deleteMatching(pattern, from, to, false).size();
+                    System.out.println(removed + " task(s) deleted.");
+                } else {
+                    System.out.println("Nothing deleted.");
+                }
+            }
+            else if (choice == 15) {
+                MemoryFootprint.print();
             }
             else {
                 System.out.println("Invalid choice. Please try again.");
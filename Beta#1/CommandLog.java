@@ -0,0 +1,314 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records the operations done through the menu and replays them with timings.
+ *
+ * Recording is on when CalendarDisplay runs with -Dcommands.record=file
+ * (gzip-compressed if the name ends in .gz). Each operation is one line,
+ * written when it starts:
+ *
+ *   <ms since the previous operation> TAB <op> TAB <arg> TAB <arg> ...
+ *
+ * Only the operation and its final inputs are logged, not prompts or typos,
+ * so a replay runs exactly the calls the user caused. Tabs, newlines and
+ * backslashes in arguments are escaped with a backslash.
+ *
+ * Replay runs each line against TaskManager and the views without printing
+ * and reports latency percentiles per operation. Like SoakTest it reads and
+ * rewrites tasks.txt in the current directory, so run it on a copy:
+ *
+ *   java CommandLog session.log.gz [--speed max|original|N]
+ *
+ * "max" (the default) runs back to back, "original" keeps the recorded
+ * gaps, N keeps them N times shorter.
+ */
+public class CommandLog {
+    private static final String HEADER = "# calendar commands v1";
+    private static final int PAGE_SIZE = 20;
+
+    private static BufferedWriter out;
+    private static long lastNanos;
+
+    /** Start appending to the given log. Called once at startup. */
+    static synchronized void start(String file) {
+        try {
+            Path path = Paths.get(file);
+            boolean fresh = !Files.exists(path) || Files.size(path) == 0;
+            OutputStream stream = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (file.endsWith(".gz")) {
+                // Appending adds a gzip member; GZIPInputStream reads them all back
+                stream = new GZIPOutputStream(stream, true);
+            }
+            out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            if (fresh) {
+                out.write(HEADER + "\n");
+            }
+            out.write("# started " + LocalDateTime.now() + "\n");
+            out.flush();
+            lastNanos = System.nanoTime();
+            Runtime.getRuntime().addShutdownHook(new Thread(CommandLog::stop, "command-log-close"));
+        } catch (IOException e) {
+            System.err.println("Cannot record commands to " + file + ": " + e.getMessage());
+        }
+    }
+
+    public static synchronized boolean isRecording() {
+        return out != null;
+    }
+
+    /** Log one operation about to run. A no-op unless recording. Null arguments are logged as empty. */
+    public static synchronized void record(String op, Object... args) {
+        if (out == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        StringBuilder line = new StringBuilder().append((now - lastNanos) / 1_000_000).append('\t').append(op);
+        for (Object arg : args) {
+            line.append('\t').append(escape(arg == null ? "" : arg.toString()));
+        }
+        lastNanos = now;
+        try {
+            out.write(line.append('\n').toString());
+            out.flush();  // a killed session still leaves a usable log
+        } catch (IOException e) {
+            System.err.println("Command recording stopped: " + e.getMessage());
+            out = null;
+        }
+    }
+
+    static synchronized void stop() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("Error closing command log: " + e.getMessage());
+        }
+        out = null;
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        StringBuilder out = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                out.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    /** Replay a log. Usage: java CommandLog file [--speed max|original|N] */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java CommandLog file [--speed max|original|N]");
+            return;
+        }
+        double speed = 0;  // 0 = as fast as possible
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--speed") && i + 1 < args.length) {
+                String value = args[++i];
+                speed = value.equals("max") ? 0 : value.equals("original") ? 1 : Double.parseDouble(value);
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                return;
+            }
+        }
+
+        HolidayManager.loadHolidays();
+        long loadStart = System.nanoTime();
+        TaskManager.loadTasks();
+        System.out.printf("# loaded %d tasks in %.1f ms%n", TaskManager.getTasks().size(),
+                (System.nanoTime() - loadStart) / 1_000_000.0);
+
+        Map<String, List<Long>> latencies = new TreeMap<>();
+        int failed = 0;
+        long runStart = System.nanoTime();
+        long due = runStart;
+        try (BufferedReader in = open(args[0])) {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                String op = fields.length > 1 ? unescape(fields[1]) : "?";
+                long t0;
+                try {
+                    // A line cut short or hand-edited counts as failed, like one that does not replay
+                    if (fields.length < 2) {
+                        throw new IllegalArgumentException("missing operation");
+                    }
+                    long gap = Long.parseLong(fields[0]);
+                    String[] opArgs = new String[fields.length - 2];
+                    for (int i = 2; i < fields.length; i++) {
+                        opArgs[i - 2] = unescape(fields[i]);
+                    }
+                    if (speed > 0) {
+                        due += (long) (gap * 1_000_000 / speed);
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) {
+                            try {
+                                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                break;
+                            }
+                        }
+                    }
+                    t0 = System.nanoTime();
+                    replay(op, opArgs);
+                } catch (RuntimeException e) {
+                    System.err.println("line " + lineNumber + " (" + op + "): " + e);
+                    failed++;
+                    continue;
+                }
+                latencies.computeIfAbsent(op, k -> new ArrayList<>()).add(System.nanoTime() - t0);
+            }
+        }
+        TaskManager.saveTasks();
+        report(latencies, failed, System.nanoTime() - runStart);
+    }
+
+    private static BufferedReader open(String file) throws IOException {
+        InputStream stream = Files.newInputStream(Paths.get(file));
+        if (file.endsWith(".gz")) {
+            stream = new GZIPInputStream(stream);
+        }
+        return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+
+    /** Run one logged operation, the way the menu does but without printing. */
+    private static void replay(String op, String[] a) {
+        switch (op) {
+            case "calendar":
+                CalendarDisplay.renderCalendar(Integer.parseInt(a[0]), Integer.parseInt(a[1]));
+                break;
+            case "month":
+                TaskPager.month(YearMonth.of(Integer.parseInt(a[0]), Integer.parseInt(a[1])), PAGE_SIZE);
+                break;
+            case "page":
+                TaskPager.next(a[0], PAGE_SIZE);
+                break;
+            case "today":
+                TaskPager.day(LocalDate.parse(a[0]), PAGE_SIZE);
+                break;
+            case "add":
+                TaskManager.addTask(Task.parse(LocalDate.parse(a[0]), a[1]));
+                break;
+            case "delete":
+                TaskManager.deleteTaskByName(a[0]);
+                break;
+            case "import":
+                TaskManager.importTasksFromFile(a[0]);
+                break;
+            case "import-bulk":
+                TaskImporter.importAll(a[0], TaskImporter.MergePolicy.valueOf(a[1]));
+                break;
+            case "agenda":
+                Agenda.next(LocalDate.parse(a[0]), Integer.parseInt(a[1]));
+                break;
+            case "agenda-page":
+                Agenda.next(a[0], Integer.parseInt(a[1]));
+                break;
+            case "stats":
+                int year = Integer.parseInt(a[0]);
+                TaskStats.countInYear(year);
+                TaskStats.busiestMonths(year, 3);
+                TaskStats.renderHeatmap(year);
+                break;
+            case "top":
+                TaskIndex.topOpen(Integer.parseInt(a[0]));
+                break;
+            case "done":
+                TaskIndex.withStatus(Task.Status.DONE, YearMonth.of(Integer.parseInt(a[0]), Integer.parseInt(a[1])));
+                break;
+            case "status":
+                TaskManager.setStatus(LocalDate.parse(a[0]), Task.Status.valueOf(a[1]));
+                break;
+            case "priority":
+                TaskManager.setPriority(LocalDate.parse(a[0]), Task.Priority.valueOf(a[1]));
+                break;
+            case "overlaps":
+                Schedule.overlapping(LocalDateTime.parse(a[0]), LocalDateTime.parse(a[1]));
+                break;
+            case "free-slots":
+                Schedule.freeSlotsInWeek(LocalDate.parse(a[0]), LocalTime.parse(a[1]), LocalTime.parse(a[2]));
+                break;
+            case "search":
+                TaskSearch.compile(a[0]).stream().count();
+                break;
+            case "bulk-preview":
+            case "bulk-delete":
+                TaskManager.deleteMatching(a[0].isEmpty() ? null : TaskManager.textPattern(a[0]),
+                        a[1].isEmpty() ? null : LocalDate.parse(a[1]), a[2].isEmpty() ? null : LocalDate.parse(a[2]),
+                        op.equals("bulk-preview"));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown operation");
+        }
+    }
+
+    private static void report(Map<String, List<Long>> latencies, int failed, long wallNanos) {
+        System.out.printf("%-13s %7s %9s %9s %9s %9s %9s%n", "op", "count", "p50_ms", "p90_ms", "p99_ms", "max_ms",
+                "total_ms");
+        long count = 0;
+        for (Map.Entry<String, List<Long>> entry : latencies.entrySet()) {
+            List<Long> times = entry.getValue();
+            times.sort(null);
+            long total = 0;
+            for (long t : times) {
+                total += t;
+            }
+            System.out.printf("%-13s %7d %9.3f %9.3f %9.3f %9.3f %9.1f%n", entry.getKey(), times.size(),
+                    ms(percentile(times, 50)), ms(percentile(times, 90)), ms(percentile(times, 99)),
+                    ms(times.get(times.size() - 1)), ms(total));
+            count += times.size();
+        }
+        System.out.printf("# %d operations (%d failed) in %.1f ms%n", count, failed, ms(wallNanos));
+    }
+
+    /** Nearest-rank percentile of a sorted, non-empty list. */
+    private static long percentile(List<Long> sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional ANSI full-screen calendar. Shows the month grid with a side panel
+ * of that month's tasks and holidays, and redraws only the cells that changed.
+ *
+ * Keys: Left/Right = previous/next month, Up/Down = next/previous year,
+ * a = add task, d = delete task by name, q = back to the menu.
+ */
+public class FullScreenCalendar {
+    private static final int ROWS = 20;
+    private static final int COLS = 80;
+    private static final int GRID_WIDTH = 29;
+    private static final int PANEL_LINES = 14;
+    private static final int STATUS_ROW = ROWS - 1;
+    private static final int PROMPT_ROW = ROWS;
+
+    private static final int KEY_UP = 1000;
+    private static final int KEY_DOWN = 1001;
+    private static final int KEY_RIGHT = 1002;
+    private static final int KEY_LEFT = 1003;
+
+    public static void run(int year, int month) {
+        PrintStream out = System.out;
+        InputStream in = System.in;
+        TerminalRenderer renderer = new TerminalRenderer(ROWS, COLS);
+        YearMonth current = YearMonth.of(year, month);
+        String status = "Left/Right: month  Up/Down: year  a: add  d: delete  q: quit";
+
+        boolean raw = setRawMode(true);
+        YearMonth recorded = null;
+        try {
+            while (true) {
+                if (!current.equals(recorded)) {
+                    // Each month shown is logged like a View Calendar from the menu
+                    CommandLog.record("calendar", current.getYear(), current.getMonthValue());
+                    recorded = current;
+                }
+                out.print(renderer.render(buildFrame(current, status)));
+                out.flush();
+                CalendarDisplay.prefetchAround(current);
+
+                int key = readKey(in);
+                if (key == 'q' || key == 'Q' || key == -1) {
+                    break;
+                } else if (key == KEY_RIGHT) {
+                    current = current.plusMonths(1);
+                } else if (key == KEY_LEFT) {
+                    current = current.minusMonths(1);
+                } else if (key == KEY_UP) {
+                    current = current.plusYears(1);
+                } else if (key == KEY_DOWN) {
+                    current = current.minusYears(1);
+                } else if (key == 'a' || key == 'A') {
+                    String dayText = prompt(renderer, "Day of " + current + " to add to: ");
+                    try {
+                        LocalDate date = current.atDay(Integer.parseInt(dayText.trim()));
+                        Task task = new Task(date, prompt(renderer, "Enter task: "));
+                        CommandLog.record("add", date, task.toStored());
+                        TaskManager.addTask(task);
+                        status = "Task added on " + date + ".";
+                    } catch (RuntimeException e) {
+                        status = "Invalid day.";
+                    }
+                } else if (key == 'd' || key == 'D') {
+                    String name = prompt(renderer, "Enter the name of the task to delete: ");
+                    CommandLog.record("delete", name);
+                    status = TaskManager.deleteTaskByName(name)
+                            ? "Task deleted successfully."
+                            : "No task found with that name.";
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading keys: " + e.getMessage());
+        } finally {
+            if (raw) {
+                setRawMode(false);
+            }
+            out.print(TerminalRenderer.clearScreen());
+            out.flush();
+        }
+    }
+
+    /** Lays out the month grid on the left and the task/holiday panel on the right. */
+    static List<String> buildFrame(YearMonth month, String status) {
+        List<String> grid = new ArrayList<>();
+        for (String line : CalendarDisplay.renderCalendar(month.getYear(), month.getMonthValue()).split("\n")) {
+            if (!line.isEmpty()) {
+                grid.add(line);
+            }
+        }
+
+        List<String> body = new ArrayList<>();
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            String holiday = HolidayManager.getHolidays().get(month.atDay(day));
+            if (holiday != null) {
+                body.add(String.format("[%2d] %s", day, holiday));
+            }
+        }
+        for (Map.Entry<LocalDate, String> entry : TaskManager.getTasksForMonth(month).entrySet()) {
+            body.add(String.format("*%2d* %s", entry.getKey().getDayOfMonth(), entry.getValue()));
+        }
+        // Sorted by day so unchanged rows stay unchanged on screen
+        body.sort(null);
+
+        List<String> panel = new ArrayList<>();
+        panel.add("Tasks & holidays");
+        panel.add("----------------");
+        int room = PANEL_LINES - panel.size();
+        if (body.size() > room) {
+            panel.addAll(body.subList(0, room - 1));
+            panel.add("... " + (body.size() - (room - 1)) + " more");
+        } else {
+            panel.addAll(body);
+        }
+
+        List<String> frame = new ArrayList<>();
+        int height = Math.max(grid.size(), panel.size());
+        for (int i = 0; i < height; i++) {
+            String left = i < grid.size() ? grid.get(i) : "";
+            String right = i < panel.size() ? panel.get(i) : "";
+            frame.add(String.format("%-" + GRID_WIDTH + "s| %s", left, right));
+        }
+        while (frame.size() < STATUS_ROW - 1) {
+            frame.add("");
+        }
+        frame.add(status);
+        return frame;
+    }
+
+    /** Reads one key press, turning ESC [ A..D sequences into arrow key codes. */
+    private static int readKey(InputStream in) throws IOException {
+        int c = in.read();
+        if (c != 27) {
+            return c;
+        }
+        int next = in.read();
+        if (next != '[' && next != 'O') {
+            return next;
+        }
+        switch (in.read()) {
+            case 'A': return KEY_UP;
+            case 'B': return KEY_DOWN;
+            case 'C': return KEY_RIGHT;
+            case 'D': return KEY_LEFT;
+            default: return 0;
+        }
+    }
+
+    /** Shows a prompt on the bottom row with normal line editing, and reads the answer. */
+    private static String prompt(TerminalRenderer renderer, String text) throws IOException {
+        System.out.print(renderer.moveToRow(PROMPT_ROW) + text);
+        System.out.flush();
+        setRawMode(false);
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = System.in.read()) != -1 && c != '\n') {
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        setRawMode(true);
+        renderer.markRowDirty(PROMPT_ROW);
+        return line.toString();
+    }
+
+    /**
+     * Switches the controlling terminal in or out of raw (no echo, no line buffering)
+     * mode using stty. Returns false if that is not possible, e.g. input is piped;
+     * keys then need Enter after them but everything else still works.
+     */
+    private static boolean setRawMode(boolean on) {
+        String mode = on ? "-icanon -echo min 1" : "icanon echo";
+        try {
+            Process p = new ProcessBuilder("sh", "-c", "stty " + mode + " < /dev/tty")
+                    .redirectErrorStream(true).start();
+            return p.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
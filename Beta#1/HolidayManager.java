@@ -1,14 +1,30 @@
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.temporal.TemporalAdjusters;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 public class HolidayManager {
-    private static HashMap<LocalDate, String> holidays = new HashMap<>();
+    private static TreeMap<LocalDate, String> holidays = new TreeMap<>();
+    // Region shown by the calendar views
+    private static final String region = System.getProperty("holidays.region", "CA-ON");
+    // Completes once holidays are loaded; readers wait on it
+    private static volatile CompletableFuture<Void> ready = CompletableFuture.completedFuture(null);
 
     /**
-     * Loads recurring Canadian holidays (both fixed and dynamic)
-     * for a wide range of years. Adjust year range if needed.
+     * Start loading holidays on a background thread and return right away.
+     * getHolidays() waits for it to finish.
+     */
+    public static CompletableFuture<Void> loadHolidaysInBackground() {
+        ready = CompletableFuture.runAsync(HolidayManager::loadHolidays);
+        return ready;
+    }
+
+    /**
+     * Loads the holidays of the configured region (-Dholidays.region, default
+     * CA-ON: federal plus Ontario) for a wide range of years. Adjust year range if needed.
      */
     public static void loadHolidays() {
         try {
@@ -16,47 +32,46 @@ public class HolidayManager {
             int endYear   = 2100;
 
             for (int year = startYear; year <= endYear; year++) {
-                // New Year's Day
-                holidays.put(LocalDate.of(year, 1, 1), "New Year's Day");
-
-                // Family Day (Third Monday in February)
-                LocalDate familyDay = LocalDate.of(year, 2, 1)
-                        .with(TemporalAdjusters.dayOfWeekInMonth(3, DayOfWeek.MONDAY));
-                holidays.put(familyDay, "Family Day");
-
-                // Victoria Day (Last Monday before May 25)
-                LocalDate victoriaDay = LocalDate.of(year, 5, 24)
-                        .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
-                holidays.put(victoriaDay, "Victoria Day");
-
-                // Canada Day
-                holidays.put(LocalDate.of(year, 7, 1), "Canada Day");
-
-                // Labour Day (First Monday in September)
-                LocalDate labourDay = LocalDate.of(year, 9, 1)
-                        .with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
-                holidays.put(labourDay, "Labour Day");
-
-                // Thanksgiving (Second Monday in October)
-                LocalDate thanksgiving = LocalDate.of(year, 10, 1)
-                        .with(TemporalAdjusters.dayOfWeekInMonth(2, DayOfWeek.MONDAY));
-                holidays.put(thanksgiving, "Thanksgiving Day");
-
-                // Remembrance Day (November 11)
-                holidays.put(LocalDate.of(year, 11, 11), "Remembrance Day");
-
-                // Christmas Day (December 25)
-                holidays.put(LocalDate.of(year, 12, 25), "Christmas Day");
-
-                // Boxing Day (December 26)
-                holidays.put(LocalDate.of(year, 12, 26), "Boxing Day");
+                holidays.putAll(HolidayRegions.forYear(region, year));
             }
         } catch (Exception e) {
             System.err.println("Error loading holidays: " + e.getMessage());
         }
     }
 
-    public static HashMap<LocalDate, String> getHolidays() {
+    public static String getRegion() {
+        return region;
+    }
+
+    /**
+     * Holidays of any region for one year (see HolidayRegions), shared and
+     * read-only. O(1) after the first call for that region and year.
+     */
+    public static NavigableMap<LocalDate, String> getHolidays(String region, int year) {
+        return HolidayRegions.forYear(region, year);
+    }
+
+    /**
+     * Heap estimate for the loaded holidays plus the per-region year tables
+     * they were copied from. Names are string literals shared by every year,
+     * so each distinct name object is counted once.
+     */
+    static MemoryFootprint.Item footprint() {
+        TreeMap<LocalDate, String> all = getHolidays();
+        Set<String> names = Collections.newSetFromMap(new IdentityHashMap<>());
+        names.addAll(all.values());
+        HolidayRegions.Usage tables = HolidayRegions.usage();
+        return new MemoryFootprint.Item("Holidays (+ region cache)", all.size() + tables.entries,
+                all.size() * MemoryFootprint.LOCAL_DATE, MemoryFootprint.strings(names),
+                MemoryFootprint.treeMap(all.size()) + tables.bytes);
+    }
+
+    /**
+     * Returns all holidays (date -> name), ordered by date.
+     * Waits for a background load to finish first.
+     */
+    public static TreeMap<LocalDate, String> getHolidays() {
+        ready.join();
         return holidays;
     }
 }
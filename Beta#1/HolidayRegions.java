@@ -0,0 +1,182 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holiday rules per region, composable and cached per (region, year).
+ *
+ * A region is a list of providers applied in order, e.g. "CA-QC" is the
+ * federal holidays plus Quebec's (a later provider may rename a date). Each
+ * region's table for a year is computed once, on first use, then shared
+ * read-only by every calendar that asks for it, so later lookups are a
+ * single hash lookup however many callers use the region. Tables of the
+ * parts are cached too, so "CA" is computed once for all Canadian regions.
+ *
+ * Built in: CA (federal), ON, QC, BC, AB, and the combinations CA-ON, CA-QC,
+ * CA-BC, CA-AB. Add more with register().
+ */
+public class HolidayRegions {
+
+    /** Adds one region's holidays for a year. Must be deterministic. */
+    public interface Provider {
+        void addHolidays(int year, Map<LocalDate, String> into);
+    }
+
+    private static final Map<String, List<String>> composites = new ConcurrentHashMap<>();
+    private static final Map<String, Provider> providers = new ConcurrentHashMap<>();
+    // "REGION:year" -> read-only table
+    private static final Map<String, NavigableMap<LocalDate, String>> tables = new ConcurrentHashMap<>();
+
+    static {
+        register("CA", (year, into) -> {
+            into.put(LocalDate.of(year, 1, 1), "New Year's Day");
+            into.put(LocalDate.of(year, 5, 24).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), "Victoria Day");
+            into.put(LocalDate.of(year, 7, 1), "Canada Day");
+            into.put(nthMonday(year, 9, 1), "Labour Day");
+            into.put(nthMonday(year, 10, 2), "Thanksgiving Day");
+            into.put(LocalDate.of(year, 11, 11), "Remembrance Day");
+            into.put(LocalDate.of(year, 12, 25), "Christmas Day");
+            into.put(LocalDate.of(year, 12, 26), "Boxing Day");
+        });
+        register("ON", (year, into) -> into.put(nthMonday(year, 2, 3), "Family Day"));
+        register("QC", (year, into) -> {
+            into.put(LocalDate.of(year, 5, 24).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                    "National Patriots' Day");
+            into.put(LocalDate.of(year, 6, 24), "Saint-Jean-Baptiste Day");
+        });
+        register("BC", (year, into) -> {
+            into.put(nthMonday(year, 2, 3), "Family Day");
+            into.put(nthMonday(year, 8, 1), "British Columbia Day");
+        });
+        register("AB", (year, into) -> {
+            into.put(nthMonday(year, 2, 3), "Family Day");
+            into.put(nthMonday(year, 8, 1), "Heritage Day");
+        });
+        compose("CA-ON", "CA", "ON");
+        compose("CA-QC", "CA", "QC");
+        compose("CA-BC", "CA", "BC");
+        compose("CA-AB", "CA", "AB");
+    }
+
+    /** Register (or replace) a base region. Clears cached tables that may depend on it. */
+    public static void register(String region, Provider provider) {
+        providers.put(region, provider);
+        tables.clear();
+    }
+
+    /**
+     * Define a region as the given regions applied in order (later ones win on the same date).
+     * Throws IllegalArgumentException if the region would include itself, directly or through
+     * other composites, since building its table would never end.
+     */
+    public static synchronized void compose(String region, String... parts) {
+        List<String> list = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(parts)));
+        for (String part : list) {
+            if (reaches(part, region, new HashSet<>())) {
+                throw new IllegalArgumentException("Holiday region " + region + " would include itself through " + part);
+            }
+        }
+        composites.put(region, list);
+        tables.clear();
+    }
+
+    /** True if 'from' is 'target' or includes it through composites. */
+    private static boolean reaches(String from, String target, Set<String> seen) {
+        if (from.equals(target)) {
+            return true;
+        }
+        List<String> parts = composites.get(from);
+        if (parts == null || !seen.add(from)) {
+            return false;
+        }
+        for (String part : parts) {
+            if (reaches(part, target, seen)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isKnown(String region) {
+        return providers.containsKey(region) || composites.containsKey(region);
+    }
+
+    public static Set<String> regions() {
+        Set<String> all = new TreeSet<>(providers.keySet());
+        all.addAll(composites.keySet());
+        return all;
+    }
+
+    /** Holidays of a region in a year, date-ordered and read-only. Computed once, then cached. */
+    public static NavigableMap<LocalDate, String> forYear(String region, int year) {
+        String key = region + ":" + year;
+        NavigableMap<LocalDate, String> table = tables.get(key);
+        if (table != null) {
+            return table;
+        }
+        if (!isKnown(region)) {
+            throw new IllegalArgumentException("Unknown holiday region: " + region);
+        }
+        // Built outside the map (a composite fills its parts' entries too); first one in wins
+        NavigableMap<LocalDate, String> built = build(region, year);
+        NavigableMap<LocalDate, String> raced = tables.putIfAbsent(key, built);
+        return raced != null ? raced : built;
+    }
+
+    private static NavigableMap<LocalDate, String> build(String region, int year) {
+        TreeMap<LocalDate, String> table = new TreeMap<>();
+        List<String> parts = composites.get(region);
+        if (parts != null) {
+            for (String part : parts) {
+                // Parts go through the cache too, so they are shared between composites
+                table.putAll(forYear(part, year));
+            }
+        } else {
+            providers.get(region).addHolidays(year, table);
+        }
+        return Collections.unmodifiableNavigableMap(table);
+    }
+
+    /** Size of the cached year tables, for MemoryFootprint. */
+    static class Usage {
+        final long entries;
+        final long bytes;
+
+        Usage(long entries, long bytes) {
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Entries and estimated bytes of all cached tables (tree entries, the
+     * unmodifiable wrappers and cache keys). Dates and names are shared with
+     * HolidayManager's map, so they are not counted again.
+     */
+    static Usage usage() {
+        long entries = 0;
+        long bytes = MemoryFootprint.hashMap(tables.size());
+        for (Map.Entry<String, NavigableMap<LocalDate, String>> table : tables.entrySet()) {
+            entries += table.getValue().size();
+            bytes += MemoryFootprint.string(table.getKey())
+                    + MemoryFootprint.align(MemoryFootprint.HEADER + 4 * MemoryFootprint.REF)
+                    + MemoryFootprint.treeMap(table.getValue().size());
+        }
+        return new Usage(entries, bytes);
+    }
+
+    private static LocalDate nthMonday(int year, int month, int n) {
+        return LocalDate.of(year, month, 1).with(TemporalAdjusters.dayOfWeekInMonth(n, DayOfWeek.MONDAY));
+    }
+}
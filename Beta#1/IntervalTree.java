@@ -0,0 +1,180 @@
+import java.util.function.Consumer;
+
+/**
+ * Balanced (AVL) interval tree. Each node is a half-open interval [start, end)
+ * with a value, ordered by (start, id), and also stores the largest end in
+ * its subtree so overlap searches can skip whole subtrees.
+ *
+ * Insert and remove are O(log n); finding all k intervals that overlap a
+ * range is O(log n + k).
+ */
+public class IntervalTree<T> {
+
+    private static class Node<T> {
+        final long start;
+        final long end;
+        final long id;
+        final T value;
+        long maxEnd;
+        int height = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(long start, long end, long id, T value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node<T> root = null;
+    private int size = 0;
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /** Add [start, end). 'id' must be unique among intervals with the same start. */
+    public void insert(long start, long end, long id, T value) {
+        root = insert(root, new Node<>(start, end, id, value));
+    }
+
+    /** Remove the interval with this start and id. Returns true if it was there. */
+    public boolean remove(long start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /** Calls 'out' for every interval that overlaps [from, to). */
+    public void overlapping(long from, long to, Consumer<T> out) {
+        overlapping(root, from, to, out);
+    }
+
+    private void overlapping(Node<T> node, long from, long to, Consumer<T> out) {
+        if (node == null || node.maxEnd <= from) {
+            return;  // nothing in this subtree ends after 'from'
+        }
+        overlapping(node.left, from, to, out);
+        if (node.start >= to) {
+            return;  // this node and everything to the right start too late
+        }
+        if (node.end > from) {
+            out.accept(node.value);
+        }
+        overlapping(node.right, from, to, out);
+    }
+
+    private static int compare(long startA, long idA, long startB, long idB) {
+        int c = Long.compare(startA, startB);
+        return c != 0 ? c : Long.compare(idA, idB);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            size++;
+            return added;
+        }
+        int c = compare(added.start, added.id, node.start, node.id);
+        if (c < 0) {
+            node.left = insert(node.left, added);
+        } else if (c > 0) {
+            node.right = insert(node.right, added);
+        } else {
+            // Same key: replace the node in place
+            added.left = node.left;
+            added.right = node.right;
+            return rebalance(added);
+        }
+        return rebalance(node);
+    }
+
+    private Node<T> remove(Node<T> node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(start, id, node.start, node.id);
+        if (c < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (c > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Replace with the smallest node of the right subtree
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node<T> replacement = new Node<>(successor.start, successor.end, successor.id, successor.value);
+            size++;  // the next remove() counts the successor again
+            replacement.right = remove(node.right, successor.start, successor.id);
+            replacement.left = node.left;
+            return rebalance(replacement);
+        }
+        return rebalance(node);
+    }
+
+    private static <T> int height(Node<T> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <T> void update(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.end;
+        if (node.left != null) {
+            node.maxEnd = Math.max(node.maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            node.maxEnd = Math.max(node.maxEnd, node.right.maxEnd);
+        }
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> top = node.left;
+        node.left = top.right;
+        top.right = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> top = node.right;
+        node.right = top.left;
+        top.left = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private static <T> Node<T> rebalance(Node<T> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Estimated heap use of the calendar's own data structures, without a heap dump.
+ *
+ * Each structure reports its entry count and its bytes split into keys
+ * (dates), payload (task and holiday strings, task objects) and overhead
+ * (map nodes, tree links, arrays), computed from its layout on a 64-bit
+ * HotSpot JVM: 12-byte object headers and 4-byte references with compressed
+ * oops (heaps under 32 GB), 16 and 8 otherwise, 8-byte alignment. Objects
+ * shared between structures (a task's date and text are the same objects in
+ * the task map and the index) are counted once, where they are first owned.
+ *
+ * The numbers are estimates: good for sizing and spotting growth, not exact.
+ */
+public class MemoryFootprint {
+    static final boolean COMPRESSED_OOPS = Runtime.getRuntime().maxMemory() < (32L << 30);
+    static final int HEADER = COMPRESSED_OOPS ? 12 : 16;
+    static final int REF = COMPRESSED_OOPS ? 4 : 8;
+    static final int ARRAY_HEADER = COMPRESSED_OOPS ? 16 : 20;
+
+    /** LocalDate: header + int year + short month + short day. */
+    static final long LOCAL_DATE = align(HEADER + 4 + 2 + 2);
+    /** One ConcurrentSkipListMap node (key, value, next) plus its share of index nodes (1 in 4). */
+    static final long SKIP_LIST_ENTRY = align(HEADER + 3 * REF) + align(HEADER + 3 * REF) / 4;
+    /** TreeMap.Entry: key, value, left, right, parent + colour. */
+    static final long TREE_ENTRY = align(HEADER + 5 * REF + 1);
+    /** HashMap.Node: hash + key, value, next (the table slot is counted separately). */
+    static final long HASH_NODE = align(HEADER + 4 + 3 * REF);
+
+    /** One line of the report. */
+    public static class Item {
+        public final String name;
+        public final long entries;
+        public final long keyBytes;
+        public final long payloadBytes;
+        public final long overheadBytes;
+
+        Item(String name, long entries, long keyBytes, long payloadBytes, long overheadBytes) {
+            this.name = name;
+            this.entries = entries;
+            this.keyBytes = keyBytes;
+            this.payloadBytes = payloadBytes;
+            this.overheadBytes = overheadBytes;
+        }
+
+        public long totalBytes() {
+            return keyBytes + payloadBytes + overheadBytes;
+        }
+    }
+
+    /** Every tracked structure, largest owners first in a fixed order. Waits for a background load. */
+    public static List<Item> report() {
+        TaskManager.awaitLoaded();
+        List<Item> items = new ArrayList<>();
+        items.add(TaskManager.footprint());
+        items.addAll(TaskIndex.footprint());
+        items.add(Schedule.footprint());
+        items.add(TaskStats.footprint());
+        items.add(HolidayManager.footprint());
+        items.add(CalendarDisplay.footprint());
+        items.add(TaskArchive.footprint());
+        return items;
+    }
+
+    public static long totalBytes() {
+        long total = 0;
+        for (Item item : report()) {
+            total += item.totalBytes();
+        }
+        return total;
+    }
+
+    /** Prints the report as a table, with the JVM's own heap numbers for comparison. */
+    public static void print() {
+        List<Item> items = report();
+        System.out.println("\n===== Memory footprint (estimated) =====");
+        System.out.printf("%-24s %10s %10s %10s %10s %10s%n", "Structure", "Entries", "Keys", "Payload", "Overhead", "Total");
+        long total = 0;
+        for (Item item : items) {
+            System.out.printf("%-24s %10d %10s %10s %10s %10s%n", item.name, item.entries, kb(item.keyBytes),
+                    kb(item.payloadBytes), kb(item.overheadBytes), kb(item.totalBytes()));
+            total += item.totalBytes();
+        }
+        System.out.printf("%-24s %54s%n", "All structures", kb(total));
+        Runtime rt = Runtime.getRuntime();
+        System.out.printf("JVM heap used %s of %s (%s, %d-byte references)%n", kb(rt.totalMemory() - rt.freeMemory()),
+                kb(rt.maxMemory()), COMPRESSED_OOPS ? "compressed oops" : "uncompressed oops", REF);
+    }
+
+    private static String kb(long bytes) {
+        return bytes < 10 * 1024 ? bytes + " B" : (bytes / 1024) + " KB";
+    }
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /** A String: object (hash, coder, flags, value ref) plus its byte[] (Latin-1 or UTF-16). */
+    static long string(String s) {
+        boolean latin1 = true;
+        for (int i = 0; i < s.length() && latin1; i++) {
+            latin1 = s.charAt(i) < 256;
+        }
+        return align(HEADER + 4 + 1 + 1 + REF) + array(s.length() * (latin1 ? 1 : 2));
+    }
+
+    static long strings(Collection<String> values) {
+        long bytes = 0;
+        for (String s : values) {
+            bytes += string(s);
+        }
+        return bytes;
+    }
+
+    /** A primitive or reference array with the given payload size in bytes. */
+    static long array(long payloadBytes) {
+        return align(ARRAY_HEADER + payloadBytes);
+    }
+
+    /** HashMap (or HashSet's backing map) with n entries: map object, table and nodes. */
+    static long hashMap(int n) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < n) {
+            capacity <<= 1;
+        }
+        return align(HEADER + 6 * 4 + 4 * REF) + (n == 0 ? 0 : array((long) capacity * REF)) + n * HASH_NODE;
+    }
+
+    /** TreeMap (or TreeSet's backing map) with n entries. */
+    static long treeMap(int n) {
+        return align(HEADER + 2 * 4 + 6 * REF) + n * TREE_ENTRY;
+    }
+}
@@ -0,0 +1,148 @@
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Background reminders for due tasks.
+ *
+ * Upcoming tasks are kept in a date-ordered map (one bucket per day). A single
+ * scheduled job wakes up at midnight, fires every bucket that is now due and
+ * goes back to sleep, so no full scan of the task map is ever needed.
+ * The buckets follow TaskManager's change events.
+ */
+public class ReminderService {
+    private static final ConcurrentSkipListMap<LocalDate, String> upcoming = new ConcurrentSkipListMap<>();
+    private static final List<BiConsumer<LocalDate, String>> listeners = new CopyOnWriteArrayList<>();
+    private static ScheduledExecutorService scheduler = null;
+
+    /**
+     * Start the service: registers all tasks from today on, fires today's
+     * reminders and schedules the daily check. Safe to call twice.
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        if (listeners.isEmpty()) {
+            // Default: plain console notification
+            listeners.add((date, task) -> System.out.println("\n[Reminder] " + date + ": " + task));
+        }
+        upcoming.clear();
+        LocalDate today = LocalDate.now();
+        for (Map.Entry<LocalDate, String> entry : TaskManager.getTasks().entrySet()) {
+            if (!entry.getKey().isBefore(today)) {
+                upcoming.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "task-reminders");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.execute(ReminderService::fireDue);
+        scheduleNextMidnight();
+    }
+
+    /** Stop the background thread. Registered tasks are forgotten. */
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        upcoming.clear();
+    }
+
+    public static boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /** Add a callback that is run (on the reminder thread) when a task is due. */
+    public static void addListener(BiConsumer<LocalDate, String> listener) {
+        listeners.add(listener);
+    }
+
+    /** TaskManager listener. */
+    static void tasksChanged(List<TaskEvent> events) {
+        for (TaskEvent event : events) {
+            if (event.type == TaskEvent.Type.RELOADED) {
+                tasksReloaded();
+            } else if (event.type == TaskEvent.Type.REMOVED) {
+                taskRemoved(event.date);
+            } else {
+                taskAdded(event.date, event.after.text);
+            }
+        }
+    }
+
+    /** A task was added or replaced. */
+    static void taskAdded(LocalDate date, String task) {
+        if (scheduler == null || date.isBefore(LocalDate.now())) {
+            return;
+        }
+        upcoming.put(date, task);
+        if (!date.isAfter(LocalDate.now())) {
+            // Added for today after today's check already ran
+            scheduler.execute(ReminderService::fireDue);
+        }
+    }
+
+    /** A task was deleted. */
+    static void taskRemoved(LocalDate date) {
+        if (scheduler != null) {
+            upcoming.remove(date);
+        }
+    }
+
+    /** The whole map was reloaded from disk. */
+    static void tasksReloaded() {
+        if (scheduler != null) {
+            stop();
+            start();
+        }
+    }
+
+    /** Number of future tasks waiting for their reminder. */
+    public static int pendingCount() {
+        return upcoming.size();
+    }
+
+    /** Fire every bucket up to and including today. Only the due head of the map is touched. */
+    private static void fireDue() {
+        LocalDate today = LocalDate.now();
+        Map.Entry<LocalDate, String> due;
+        while ((due = upcoming.firstEntry()) != null && !due.getKey().isAfter(today)) {
+            if (upcoming.remove(due.getKey(), due.getValue())) {
+                for (BiConsumer<LocalDate, String> listener : listeners) {
+                    try {
+                        listener.accept(due.getKey(), due.getValue());
+                    } catch (RuntimeException e) {
+                        System.err.println("Reminder callback failed: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private static void scheduleNextMidnight() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay();
+        long delay = Duration.between(now, midnight).toMillis();
+        scheduler.schedule(() -> {
+            fireDue();
+            synchronized (ReminderService.class) {
+                if (scheduler != null) {
+                    scheduleNextMidnight();
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+}
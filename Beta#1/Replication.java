@@ -0,0 +1,291 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Leader/follower replication of the task store over a local socket.
+ *
+ * The leader keeps an in-memory log of its change batches (one log entry per
+ * TaskEvent batch, numbered by offset) and streams it, in order, to every
+ * connected follower. A follower says which epoch and offset it has; if the
+ * leader still has everything after that offset it just continues from
+ * there, otherwise it first sends a snapshot of the whole store and the
+ * offset the snapshot corresponds to. A reload on the leader starts a new
+ * epoch, which makes followers take a fresh snapshot. Each batch is applied
+ * and logged under TaskManager's write lock, so the log order is the order
+ * the leader applied them in. Snapshots include the leader's archived years.
+ * Moving a year into or out of the archive is not logged, so followers
+ * simply keep every year in memory.
+ *
+ * Followers are read-only: they apply batches to their own TaskManager and
+ * serve every view from it, and reconnect (catching up) if the leader goes away.
+ *
+ * Protocol, UTF-8 lines:
+ *   follower: HELLO <epoch> <next offset>
+ *   leader:   EPOCH <epoch>
+ *             SNAPSHOT <next offset> <count>, then count "date|stored" lines (only if needed)
+ *             BATCH <offset> <count>, then count "+date|stored" or "-date" lines, repeated
+ *
+ * Try it with two processes in different directories:
+ *   java -Dtasks.lead=7070 CalendarDisplay
+ *   java -Dtasks.follow=7070 CalendarDisplay
+ */
+public class Replication {
+    private static final int MAX_LOG_BATCHES = 10_000;
+
+    // Leader state, guarded by logLock
+    private static final Object logLock = new Object();
+    private static final ArrayDeque<List<String>> log = new ArrayDeque<>();
+    private static long firstOffset = 0;  // offset of the oldest batch still in the log
+    private static long epoch = 0;
+    private static final AtomicInteger followers = new AtomicInteger();
+
+    // Follower state
+    private static volatile long followerEpoch = -1;
+    private static volatile long followerNext = 0;
+
+    /** Start serving followers on localhost:port. Call after the tasks are loaded. */
+    public static void startLeader(int port) throws IOException {
+        synchronized (logLock) {
+            epoch = System.currentTimeMillis();
+        }
+        TaskManager.addListener(Replication::record);
+        ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        daemon("replication-leader", () -> {
+            while (true) {
+                try {
+                    Socket socket = server.accept();
+                    daemon("replication-to-" + socket.getPort(), () -> serve(socket)).start();
+                } catch (IOException e) {
+                    System.err.println("Replication leader stopped: " + e.getMessage());
+                    return;
+                }
+            }
+        }).start();
+    }
+
+    /** TaskManager listener on the leader: append one batch to the log. */
+    private static void record(List<TaskEvent> events) {
+        synchronized (logLock) {
+            for (TaskEvent event : events) {
+                if (event.type == TaskEvent.Type.RELOADED) {
+                    // Offsets no longer describe the store: new epoch, followers resync
+                    epoch++;
+                    log.clear();
+                    firstOffset = 0;
+                    logLock.notifyAll();
+                    return;
+                }
+            }
+            List<String> batch = new ArrayList<>();
+            for (TaskEvent event : events) {
+                if (event.archive) {
+                    continue;  // moved to or from the archive; followers keep every year in memory
+                }
+                batch.add(event.type == TaskEvent.Type.REMOVED
+                        ? "-" + event.date
+                        : "+" + event.date + "|" + event.after.toStored());
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            log.addLast(batch);
+            if (log.size() > MAX_LOG_BATCHES) {
+                log.removeFirst();
+                firstOffset++;
+            }
+            logLock.notifyAll();
+        }
+    }
+
+    /** Where a follower starts: the leader's epoch, the next offset, and a snapshot if it needs one. */
+    private static class Start {
+        long epoch;
+        long next;
+        NavigableMap<LocalDate, String> snapshot;
+    }
+
+    /**
+     * Decide where a follower that has (theirEpoch, theirNext) starts. Runs
+     * with task changes held off, then the log lock (the order every change
+     * takes them in). So a snapshot is exactly the store after the batch
+     * before 'next': each batch is applied and logged under the same lock.
+     */
+    private static Start start(long theirEpoch, long theirNext) {
+        Start start = new Start();
+        TaskManager.whileNoChanges(() -> {
+            synchronized (logLock) {
+                start.epoch = epoch;
+                start.next = theirNext;
+                long end = firstOffset + log.size();
+                if (theirEpoch != epoch || theirNext < firstOffset || theirNext > end) {
+                    start.snapshot = TaskManager.storedSnapshot();
+                    start.next = end;
+                }
+            }
+        });
+        return start;
+    }
+
+    /** One follower connection: optional snapshot, then every batch as it happens. */
+    private static void serve(Socket socket) {
+        followers.incrementAndGet();
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+            String[] hello = in.readLine().split(" ");
+            long theirEpoch = Long.parseLong(hello[1]);
+            long next = Long.parseLong(hello[2]);
+
+            Start start = start(theirEpoch, next);
+            long myEpoch = start.epoch;
+            next = start.next;
+            out.write("EPOCH " + myEpoch + "\n");
+            if (start.snapshot != null) {
+                out.write("SNAPSHOT " + next + " " + start.snapshot.size() + "\n");
+                for (Map.Entry<LocalDate, String> entry : start.snapshot.entrySet()) {
+                    out.write(entry.getKey() + "|" + entry.getValue() + "\n");
+                }
+            }
+            out.flush();
+
+            while (true) {
+                List<List<String>> batches = new ArrayList<>();
+                long from;
+                synchronized (logLock) {
+                    while (epoch == myEpoch && next >= firstOffset + log.size()) {
+                        logLock.wait();
+                    }
+                    if (epoch != myEpoch || next < firstOffset) {
+                        return;  // reloaded, or this follower fell behind the log: it reconnects
+                    }
+                    from = next;
+                    int skip = (int) (next - firstOffset);
+                    for (List<String> batch : log) {
+                        if (skip-- <= 0) {
+                            batches.add(batch);
+                        }
+                    }
+                }
+                for (List<String> batch : batches) {
+                    out.write("BATCH " + from++ + " " + batch.size() + "\n");
+                    for (String line : batch) {
+                        out.write(line + "\n");
+                    }
+                }
+                out.flush();
+                next = from;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Follower went away or sent garbage; it will reconnect
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Follow the leader at "port" or "host:port". Makes this process read-only.
+     * The future completes once the first snapshot (or an empty store, if the
+     * leader cannot be reached) is in place; reconnects happen in the background.
+     */
+    public static CompletableFuture<Void> startFollower(String address) {
+        int colon = address.lastIndexOf(':');
+        String host = colon < 0 ? "localhost" : address.substring(0, colon);
+        int port = Integer.parseInt(address.substring(colon + 1));
+
+        TaskManager.setReadOnly(true);
+        TaskManager.expectSnapshot();
+        CompletableFuture<Void> synced = new CompletableFuture<>();
+        daemon("replication-follower", () -> {
+            while (true) {
+                try {
+                    follow(host, port, synced);
+                } catch (IOException | RuntimeException e) {
+                    if (!synced.isDone()) {
+                        System.err.println("Cannot reach leader at " + host + ":" + port + " (" + e.getMessage()
+                                + "); starting empty and retrying.");
+                        TaskManager.loadSnapshot(new TreeMap<>());
+                        synced.complete(null);
+                    }
+                }
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }).start();
+        return synced;
+    }
+
+    private static void follow(String host, int port, CompletableFuture<Void> synced) throws IOException {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            out.write("HELLO " + followerEpoch + " " + followerNext + "\n");
+            out.flush();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] header = line.split(" ");
+                if (header[0].equals("EPOCH")) {
+                    followerEpoch = Long.parseLong(header[1]);
+                } else if (header[0].equals("SNAPSHOT")) {
+                    long next = Long.parseLong(header[1]);
+                    int count = Integer.parseInt(header[2]);
+                    TreeMap<LocalDate, String> snapshot = new TreeMap<>();
+                    for (int i = 0; i < count; i++) {
+                        String[] parts = in.readLine().split("\\|", 2);
+                        snapshot.put(LocalDate.parse(parts[0]), parts[1]);
+                    }
+                    TaskManager.loadSnapshot(snapshot);
+                    followerNext = next;
+                    synced.complete(null);
+                } else if (header[0].equals("BATCH")) {
+                    long offset = Long.parseLong(header[1]);
+                    int count = Integer.parseInt(header[2]);
+                    List<String> records = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        records.add(in.readLine());
+                    }
+                    TaskManager.applyReplicated(records);
+                    followerNext = offset + 1;
+                    synced.complete(null);
+                }
+            }
+        }
+    }
+
+    /** "leader, epoch E, log offsets A..B, N followers" or "follower at epoch E offset N". */
+    public static String status() {
+        if (TaskManager.isReadOnly()) {
+            return "follower at epoch " + followerEpoch + ", offset " + followerNext;
+        }
+        synchronized (logLock) {
+            return "leader, epoch " + epoch + ", log offsets " + firstOffset + ".." + (firstOffset + log.size())
+                    + ", " + followers.get() + " follower(s)";
+        }
+    }
+
+    private static Thread daemon(String name, Runnable body) {
+        Thread t = new Thread(body, name);
+        t.setDaemon(true);
+        return t;
+    }
+}
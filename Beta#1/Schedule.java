@@ -0,0 +1,142 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-range view of the tasks: every task is a booking from its start to its
+ * end (all day when it has no times), kept in an interval tree so overlap and
+ * free-slot questions cost O(log n + k) instead of a scan.
+ * Follows TaskManager's change events; the loader fills it directly.
+ */
+public class Schedule {
+    private static final IntervalTree<Task> bookings = new IntervalTree<>();
+    private static final Map<LocalDate, Long> startOf = new HashMap<>();
+
+    /** A free period between bookings. */
+    public static class Slot {
+        public final LocalDateTime from;
+        public final LocalDateTime to;
+
+        Slot(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String toString() {
+            return from.toLocalDate() + " " + from.toLocalTime() + " - " + to.toLocalTime();
+        }
+    }
+
+    static synchronized void clear() {
+        bookings.clear();
+        startOf.clear();
+    }
+
+    /** TaskManager listener: rebook changed tasks, drop removed ones. */
+    static synchronized void tasksChanged(List<TaskEvent> events) {
+        for (TaskEvent event : events) {
+            if (event.type == TaskEvent.Type.REMOVED) {
+                remove(event.date);
+            } else if (event.after != null) {
+                put(event.after);
+            }
+        }
+    }
+
+    static synchronized void put(Task task) {
+        remove(task.date);
+        long start = minutes(task.startDateTime());
+        long end = Math.max(start + 1, minutes(task.endDateTime()));
+        bookings.insert(start, end, task.date.toEpochDay(), task);
+        startOf.put(task.date, start);
+    }
+
+    static synchronized void remove(LocalDate date) {
+        Long start = startOf.remove(date);
+        if (start != null) {
+            bookings.remove(start, date.toEpochDay());
+        }
+    }
+
+    /** All tasks whose booking overlaps [from, to), ordered by start. Waits for a background load. */
+    public static List<Task> overlapping(LocalDateTime from, LocalDateTime to) {
+        TaskManager.awaitLoaded();
+        List<Task> result = new ArrayList<>();
+        synchronized (Schedule.class) {
+            bookings.overlapping(minutes(from), minutes(to), result::add);
+        }
+        return result;
+    }
+
+    /**
+     * What adding the candidate would clash with: tasks on other dates that
+     * overlap its time range, plus the task already on its own date, if any,
+     * which is listed first. There is one task per date, so adding the
+     * candidate replaces that task whether or not their times overlap.
+     */
+    public static List<Task> conflictsWith(Task candidate) {
+        List<Task> result = overlapping(candidate.startDateTime(), candidate.endDateTime());
+        result.removeIf(t -> t.date.equals(candidate.date));
+        Task sameDate = TaskIndex.get(candidate.date);
+        if (sameDate == null) {
+            String text = TaskManager.getTaskForDate(candidate.date);  // archived year
+            sameDate = text == null ? null : new Task(candidate.date, text);
+        }
+        if (sameDate != null) {
+            result.add(0, sameDate);
+        }
+        return result;
+    }
+
+    /**
+     * Free periods between dayStart and dayEnd on each day of the Sunday-to-Saturday
+     * week containing 'date'. Holidays are skipped entirely.
+     */
+    public static List<Slot> freeSlotsInWeek(LocalDate date, LocalTime dayStart, LocalTime dayEnd) {
+        List<Slot> free = new ArrayList<>();
+        LocalDate sunday = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+        for (int i = 0; i < 7; i++) {
+            LocalDate day = sunday.plusDays(i);
+            if (HolidayManager.getHolidays().containsKey(day)) {
+                continue;
+            }
+            LocalDateTime cursor = day.atTime(dayStart);
+            LocalDateTime limit = day.atTime(dayEnd);
+            List<Task> busy = overlapping(cursor, limit);
+            busy.sort(Comparator.comparing(Task::startDateTime));
+            for (Task task : busy) {
+                if (task.startDateTime().isAfter(cursor)) {
+                    free.add(new Slot(cursor, task.startDateTime()));
+                }
+                if (task.endDateTime().isAfter(cursor)) {
+                    cursor = task.endDateTime();
+                }
+            }
+            if (cursor.isBefore(limit)) {
+                free.add(new Slot(cursor, limit));
+            }
+        }
+        return free;
+    }
+
+    /** Heap estimate: one interval-tree node per booking plus the date -> start lookup. */
+    static synchronized MemoryFootprint.Item footprint() {
+        int n = bookings.size();
+        long nodes = n * MemoryFootprint.align(MemoryFootprint.HEADER + 4 * 8 + 4 + 3 * MemoryFootprint.REF);
+        long startTimes = MemoryFootprint.hashMap(startOf.size())
+                + startOf.size() * MemoryFootprint.align(MemoryFootprint.HEADER + 8);  // boxed Long
+        return new MemoryFootprint.Item("Schedule (interval tree)", n, 0, 0, nodes + startTimes);
+    }
+
+    private static long minutes(LocalDateTime time) {
+        return time.toLocalDate().toEpochDay() * 1440 + time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -0,0 +1,116 @@
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Long-running soak harness. Drives TaskManager add/delete/import and
+ * CalendarDisplay rendering in a loop and prints a CSV line every interval
+ * with throughput per operation, heap use and GC activity.
+ *
+ * Run it in a scratch directory: it reads and rewrites tasks.txt there.
+ *
+ * Usage: java SoakTest [--minutes M] [--interval S] [--import-lines N] [--seed S]
+ * Seed the store first with e.g. java TaskDataGenerator tasks.txt --lines 100000
+ */
+public class SoakTest {
+    private static final String[] OPS = {"add", "delete", "import", "render"};
+
+    public static void main(String[] args) throws IOException {
+        double minutes = 60;
+        int intervalSeconds = 10;
+        int importLines = 1000;
+        long seed = 7;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--minutes": minutes = Double.parseDouble(args[++i]); break;
+                case "--interval": intervalSeconds = Integer.parseInt(args[++i]); break;
+                case "--import-lines": importLines = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+
+        HolidayManager.loadHolidays();
+        long loadStart = System.nanoTime();
+        TaskManager.loadTasks();
+        System.out.printf("# loaded %d tasks in %.1f ms%n", TaskManager.getTasks().size(),
+                (System.nanoTime() - loadStart) / 1_000_000.0);
+
+        // A small import file, regenerated with a new seed for each import
+        String importFile = "soak-import.txt";
+        Random random = new Random(seed);
+        long[] count = new long[OPS.length];
+        long[] nanos = new long[OPS.length];
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.out.println("elapsed_s,op,ops_per_s,avg_ms,heap_used_mb,heap_committed_mb,gc_count,gc_ms,tasks");
+
+        long end = System.nanoTime() + (long) (minutes * 60_000_000_000L);
+        long nextReport = System.nanoTime() + intervalSeconds * 1_000_000_000L;
+        long intervalStart = System.nanoTime();
+        long runStart = intervalStart;
+        while (System.nanoTime() < end) {
+            int op = random.nextInt(OPS.length);
+            LocalDate date = LocalDate.of(2000 + random.nextInt(100), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            if (op == 2) {
+                // Not timed: only the import itself is measured
+                new TaskDataGenerator(importLines, LocalDate.of(2000, 1, 1), LocalDate.of(2100, 12, 31),
+                        "uniform", 0.1, 0.01, random.nextLong()).writeText(importFile);
+            }
+            long t0 = System.nanoTime();
+            switch (op) {
+                case 0:
+                    TaskManager.addTask(date, "soak " + Long.toHexString(random.nextLong()));
+                    break;
+                case 1:
+                    // Delete the task nearest to a random date, if any
+                    Map.Entry<LocalDate, String> victim = TaskManager.getTasks().ceilingEntry(date);
+                    if (victim != null) {
+                        TaskManager.deleteTaskByName(victim.getValue());
+                    }
+                    break;
+                case 2:
+                    TaskManager.importTasksFromFile(importFile);
+                    break;
+                default:
+                    CalendarDisplay.renderCalendar(date.getYear(), date.getMonthValue());
+            }
+            nanos[op] += System.nanoTime() - t0;
+            count[op]++;
+
+            if (System.nanoTime() >= nextReport) {
+                report(runStart, intervalStart, count, nanos, memory);
+                count = new long[OPS.length];
+                nanos = new long[OPS.length];
+                intervalStart = System.nanoTime();
+                nextReport = intervalStart + intervalSeconds * 1_000_000_000L;
+            }
+        }
+        report(runStart, intervalStart, count, nanos, memory);
+    }
+
+    private static void report(long runStart, long intervalStart, long[] count, long[] nanos, MemoryMXBean memory) {
+        long now = System.nanoTime();
+        double elapsed = (now - runStart) / 1_000_000_000.0;
+        double interval = Math.max(1e-9, (now - intervalStart) / 1_000_000_000.0);
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+        double usedMb = memory.getHeapMemoryUsage().getUsed() / 1048576.0;
+        double committedMb = memory.getHeapMemoryUsage().getCommitted() / 1048576.0;
+        for (int i = 0; i < OPS.length; i++) {
+            double avgMs = count[i] == 0 ? 0 : nanos[i] / 1_000_000.0 / count[i];
+            System.out.printf("%.0f,%s,%.1f,%.3f,%.1f,%.1f,%d,%d,%d%n", elapsed, OPS[i], count[i] / interval,
+                    avgMs, usedMb, committedMb, gcCount, gcMillis, TaskManager.getTasks().size());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the startup loads concurrently and times each phase.
+ *
+ * Holidays and tasks load in the background at the same time, so the menu
+ * can be shown immediately. Anything that needs the data waits on it
+ * (see HolidayManager.getHolidays and TaskManager.awaitMonth).
+ */
+public class Startup {
+    private static long startNanos;
+    private static volatile long menuReadyNanos = -1;
+    private static volatile long holidaysNanos = -1;
+    private static volatile long tasksNanos = -1;
+    private static CompletableFuture<Void> done = CompletableFuture.completedFuture(null);
+
+    /** Kick off both loads. Prints a one-line timing report when they are done. */
+    public static void begin() {
+        startNanos = System.nanoTime();
+        // -Dcommands.record=file: log every menu operation for CommandLog replay
+        String record = System.getProperty("commands.record");
+        if (record != null) {
+            CommandLog.start(record);
+        }
+        CompletableFuture<Void> holidays = HolidayManager.loadHolidaysInBackground()
+                .thenRun(() -> holidaysNanos = System.nanoTime() - startNanos);
+        // -Dtasks.follow=[host:]port: read-only replica of a leader instead of tasks.txt
+        String follow = System.getProperty("tasks.follow");
+        CompletableFuture<Void> tasks = (follow != null
+                ? Replication.startFollower(follow)
+                : TaskManager.loadTasksInBackground())
+                .thenRun(() -> tasksNanos = System.nanoTime() - startNanos);
+        // -Dtasks.lead=port: ship every change to followers once the tasks are loaded
+        Integer lead = Integer.getInteger("tasks.lead");
+        if (follow == null && lead != null) {
+            tasks = tasks.thenRun(() -> {
+                try {
+                    Replication.startLeader(lead);
+                } catch (IOException e) {
+                    System.err.println("Cannot start replication on port " + lead + ": " + e.getMessage());
+                }
+            });
+        }
+        // -Dtasks.ingest=port|socket path: binary, pipelined add/delete/query for other programs
+        String ingest = System.getProperty("tasks.ingest");
+        if (ingest != null) {
+            tasks = tasks.thenRun(() -> {
+                try {
+                    TaskIngestServer.start(ingest);
+                } catch (IOException e) {
+                    System.err.println("Cannot start task ingest on " + ingest + ": " + e.getMessage());
+                }
+            });
+        }
+        done = CompletableFuture.allOf(holidays, tasks).thenRun(() -> {
+            ReminderService.start();
+            System.out.println("\n[Startup] " + report());
+            if (follow != null || lead != null) {
+                System.out.println("[Replication] " + Replication.status());
+            }
+        });
+        menuReadyNanos = System.nanoTime() - startNanos;
+    }
+
+    /** Wait until every startup phase has finished. */
+    public static void awaitDone() {
+        done.join();
+    }
+
+    /** Timing of each phase, measured from the start of begin(). */
+    public static String report() {
+        return String.format("menu ready in %.1f ms, holidays loaded in %s, tasks loaded in %s (%d tasks)",
+                millis(menuReadyNanos), phase(holidaysNanos), phase(tasksNanos),
+                TaskManager.isLoaded() ? TaskManager.getTasks().size() : 0);
+    }
+
+    private static String phase(long nanos) {
+        return nanos < 0 ? "(still loading)" : String.format("%.1f ms", millis(nanos));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,186 @@
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A task with its priority, status, tags and optional time range.
+ *
+ * In the task file the extra fields are an optional suffix after the text:
+ *
+ *   2025-01-24|Comp sci Final|@p=HIGH;s=DONE;t=school,exam
+ *   2025-01-24|Trip|@p=NORMAL;s=OPEN;st=09:00;en=2025-01-26T17:00
+ *
+ * Without a start time a task takes the whole day. Without an end it runs
+ * to the end of its start day; an end on a later date makes it multi-day.
+ *
+ * Lines without the suffix (the original date|text format) get NORMAL / OPEN
+ * and no tags, and a default task is saved without a suffix, so old files
+ * and old readers keep working.
+ */
+public class Task {
+    public enum Priority { LOW, NORMAL, HIGH, URGENT }
+
+    public enum Status { OPEN, DONE }
+
+    private static final String SUFFIX_MARK = "|@";
+
+    public final LocalDate date;
+    public final String text;
+    public final Priority priority;
+    public final Status status;
+    public final Set<String> tags;
+    public final LocalTime startTime;  // null = all day
+    public final LocalDateTime end;    // null = end of the start day
+
+    public Task(LocalDate date, String text) {
+        this(date, text, Priority.NORMAL, Status.OPEN, Collections.emptySet());
+    }
+
+    public Task(LocalDate date, String text, Priority priority, Status status, Set<String> tags) {
+        this(date, text, priority, status, tags, null, null);
+    }
+
+    public Task(LocalDate date, String text, Priority priority, Status status, Set<String> tags,
+                LocalTime startTime, LocalDateTime end) {
+        this.date = date;
+        this.text = text;
+        this.priority = priority;
+        this.status = status;
+        this.tags = tags.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(cleanTags(tags));
+        this.startTime = startTime;
+        this.end = end;
+    }
+
+    /**
+     * Tags without the characters the suffix uses as separators (';' between
+     * fields, ',' between tags, '|' before the suffix); empty tags are dropped.
+     */
+    private static Set<String> cleanTags(Set<String> tags) {
+        Set<String> clean = new LinkedHashSet<>();
+        for (String tag : tags) {
+            String cleaned = tag.replaceAll("[;,|\\r\\n]", "").trim();
+            if (!cleaned.isEmpty()) {
+                clean.add(cleaned);
+            }
+        }
+        return clean;
+    }
+
+    public Task withText(String newText) {
+        return new Task(date, newText, priority, status, tags, startTime, end);
+    }
+
+    public Task withPriority(Priority newPriority) {
+        return new Task(date, text, newPriority, status, tags, startTime, end);
+    }
+
+    public Task withStatus(Status newStatus) {
+        return new Task(date, text, priority, newStatus, tags, startTime, end);
+    }
+
+    public Task withTimes(LocalTime newStart, LocalDateTime newEnd) {
+        return new Task(date, text, priority, status, tags, newStart, newEnd);
+    }
+
+    public boolean isDefault() {
+        return priority == Priority.NORMAL && status == Status.OPEN && tags.isEmpty()
+                && startTime == null && end == null;
+    }
+
+    public boolean isTimed() {
+        return startTime != null || end != null;
+    }
+
+    /** Start of the booked range. */
+    public LocalDateTime startDateTime() {
+        return date.atTime(startTime == null ? LocalTime.MIDNIGHT : startTime);
+    }
+
+    /** End of the booked range (exclusive). */
+    public LocalDateTime endDateTime() {
+        return end != null ? end : date.plusDays(1).atStartOfDay();
+    }
+
+    /**
+     * Parse the part of a line after "date|". If the text ends in a valid
+     * "|@..." suffix it becomes the extra fields, otherwise it is all text.
+     */
+    public static Task parse(LocalDate date, String stored) {
+        int mark = stored.lastIndexOf(SUFFIX_MARK);
+        if (mark < 0) {
+            return new Task(date, stored);
+        }
+        Priority priority = Priority.NORMAL;
+        Status status = Status.OPEN;
+        Set<String> tags = new LinkedHashSet<>();
+        LocalTime startTime = null;
+        LocalDateTime end = null;
+        try {
+            for (String field : stored.substring(mark + SUFFIX_MARK.length()).split(";")) {
+                if (field.startsWith("p=")) {
+                    priority = Priority.valueOf(field.substring(2));
+                } else if (field.startsWith("s=")) {
+                    status = Status.valueOf(field.substring(2));
+                } else if (field.startsWith("t=")) {
+                    for (String tag : field.substring(2).split(",")) {
+                        if (!tag.isEmpty()) {
+                            tags.add(tag);
+                        }
+                    }
+                } else if (field.startsWith("st=")) {
+                    startTime = LocalTime.parse(field.substring(3));
+                } else if (field.startsWith("en=")) {
+                    end = LocalDateTime.parse(field.substring(3));
+                } else if (!field.isEmpty()) {
+                    return new Task(date, stored);  // not our suffix, keep it as text
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return new Task(date, stored);
+        }
+        return new Task(date, stored.substring(0, mark), priority, status, tags, startTime, end);
+    }
+
+    /**
+     * The text as stored after "date|", with the suffix only if needed. Text
+     * that itself contains "|@" always gets a suffix, so parse() never reads
+     * part of the text as fields.
+     */
+    public String toStored() {
+        if (isDefault() && !text.contains(SUFFIX_MARK)) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text).append(SUFFIX_MARK);
+        out.append("p=").append(priority).append(";s=").append(status);
+        if (!tags.isEmpty()) {
+            out.append(";t=").append(String.join(",", tags));
+        }
+        if (startTime != null) {
+            out.append(";st=").append(startTime);
+        }
+        if (end != null) {
+            out.append(";en=").append(end);
+        }
+        return out.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(date + ": " + text);
+        if (isTimed()) {
+            out.append(" (").append(startDateTime()).append(" to ").append(endDateTime()).append(')');
+        }
+        if (!isDefault()) {
+            out.append(" [").append(priority).append(", ").append(status);
+            for (String tag : tags) {
+                out.append(", #").append(tag);
+            }
+            out.append(']');
+        }
+        return out.toString();
+    }
+}
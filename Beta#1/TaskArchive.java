@@ -0,0 +1,213 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Cold tier for old years: one compressed, indexed segment file per year.
+ *
+ *   tasks.archive/2019.tska
+ *     "TSKA", version, year, then 12 x (offset, length, count), one per month
+ *     then one compressed TaskFileFormat block per month
+ *
+ * A month is read by seeking straight to its block, so looking at an
+ * archived month costs one small read and never loads the rest of the year.
+ * Recently read months are kept in a small cache. TaskManager moves years
+ * older than its hot window here and brings a year back when it is edited.
+ */
+public class TaskArchive {
+    static final String DIR = "tasks.archive";
+    private static final int MAGIC = 0x54534b41; // "TSKA"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 1 + 4 + 12 * (8 + 4 + 4);
+    private static final int CACHE_MONTHS = 12;
+
+    private static final NavigableSet<Integer> years = new ConcurrentSkipListSet<>();
+    private static final Map<YearMonth, NavigableMap<LocalDate, String>> cache = Collections.synchronizedMap(
+            new LinkedHashMap<YearMonth, NavigableMap<LocalDate, String>>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<YearMonth, NavigableMap<LocalDate, String>> eldest) {
+                    return size() > CACHE_MONTHS;
+                }
+            });
+
+    /** Find the archived years on disk. Cheap: only lists the directory. */
+    static void scan() {
+        years.clear();
+        cache.clear();
+        Path dir = Paths.get(DIR);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.tska")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    years.add(Integer.parseInt(name.substring(0, name.length() - 5)));
+                } catch (NumberFormatException e) {
+                    System.err.println("Ignoring unexpected archive file: " + file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing task archive: " + e.getMessage());
+        }
+    }
+
+    public static boolean isArchived(int year) {
+        return years.contains(year);
+    }
+
+    public static NavigableSet<Integer> archivedYears() {
+        return Collections.unmodifiableNavigableSet(years);
+    }
+
+    private static Path segment(int year) {
+        return Paths.get(DIR, year + ".tska");
+    }
+
+    /** Write one year's stored entries as a segment (replacing any existing one). */
+    static void writeYear(int year, NavigableMap<LocalDate, String> entries) throws IOException {
+        Files.createDirectories(Paths.get(DIR));
+        byte[][] blocks = new byte[12][];
+        int[] counts = new int[12];
+        for (int m = 1; m <= 12; m++) {
+            YearMonth month = YearMonth.of(year, m);
+            NavigableMap<LocalDate, String> monthEntries =
+                    entries.subMap(month.atDay(1), true, month.atEndOfMonth(), true);
+            counts[m - 1] = monthEntries.size();
+            if (monthEntries.isEmpty()) {
+                blocks[m - 1] = new byte[0];
+            } else {
+                ByteArrayOutputStream block = new ByteArrayOutputStream();
+                TaskFileFormat.write(block, monthEntries.entrySet(), true);
+                blocks[m - 1] = block.toByteArray();
+            }
+        }
+
+        Path tmp = Paths.get(DIR, year + ".tska.tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(year);
+            long offset = HEADER_BYTES;
+            for (int m = 0; m < 12; m++) {
+                out.writeLong(offset);
+                out.writeInt(blocks[m].length);
+                out.writeInt(counts[m]);
+                offset += blocks[m].length;
+            }
+            for (byte[] block : blocks) {
+                out.write(block);
+            }
+        }
+        Files.move(tmp, segment(year), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        years.add(year);
+        for (int m = 1; m <= 12; m++) {
+            cache.remove(YearMonth.of(year, m));
+        }
+    }
+
+    /**
+     * Tasks (stored form) of an archived month, read-only. Reads only that month's block.
+     * A block that cannot be read shows as empty (and is tried again next time).
+     */
+    public static NavigableMap<LocalDate, String> readMonth(YearMonth month) {
+        try {
+            return loadMonth(month);
+        } catch (IOException e) {
+            System.err.println("Error reading archived " + month + ": " + e.getMessage());
+            return Collections.unmodifiableNavigableMap(new TreeMap<>());
+        }
+    }
+
+    /** Read a month through the cache; only a successful read is cached. */
+    private static NavigableMap<LocalDate, String> loadMonth(YearMonth month) throws IOException {
+        NavigableMap<LocalDate, String> cached = cache.get(month);
+        if (cached != null) {
+            return cached;
+        }
+        TreeMap<LocalDate, String> result = new TreeMap<>();
+        if (!years.contains(month.getYear())) {
+            return Collections.unmodifiableNavigableMap(result);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment(month.getYear()).toFile(), "r")) {
+            if (file.readInt() != MAGIC || file.readUnsignedByte() != VERSION) {
+                throw new IOException("Unknown archive segment format");
+            }
+            file.seek(4 + 1 + 4 + (month.getMonthValue() - 1) * (8 + 4 + 4));
+            long offset = file.readLong();
+            int length = file.readInt();
+            if (length > 0) {
+                byte[] block = new byte[length];
+                file.seek(offset);
+                file.readFully(block);
+                TaskFileFormat.read(new ByteArrayInputStream(block), result::put);
+            }
+        }
+        NavigableMap<LocalDate, String> view = Collections.unmodifiableNavigableMap(result);
+        cache.put(month, view);
+        return view;
+    }
+
+    /** Heap estimate for the cache of recently read archived months. */
+    static MemoryFootprint.Item footprint() {
+        long entries = 0;
+        long keys = 0;
+        long text = 0;
+        long overhead;
+        synchronized (cache) {
+            overhead = MemoryFootprint.hashMap(cache.size()) + cache.size() * 2L * MemoryFootprint.REF;
+            for (NavigableMap<LocalDate, String> month : cache.values()) {
+                entries += month.size();
+                keys += month.size() * MemoryFootprint.LOCAL_DATE;
+                text += MemoryFootprint.strings(month.values());
+                overhead += MemoryFootprint.treeMap(month.size());
+            }
+        }
+        return new MemoryFootprint.Item("Archive month cache", entries, keys, text, overhead);
+    }
+
+    /**
+     * Every task of an archived year, in stored form. Unlike readMonth this
+     * throws if any month cannot be read, so a damaged segment is never taken
+     * for an empty one by a caller about to rewrite or delete it.
+     */
+    static NavigableMap<LocalDate, String> readYear(int year) throws IOException {
+        TreeMap<LocalDate, String> all = new TreeMap<>();
+        for (int m = 1; m <= 12; m++) {
+            all.putAll(loadMonth(YearMonth.of(year, m)));
+        }
+        return all;
+    }
+
+    /** Stop treating a year as archived (its tasks are going back into memory). */
+    static void forget(int year) {
+        years.remove(year);
+        for (int m = 1; m <= 12; m++) {
+            cache.remove(YearMonth.of(year, m));
+        }
+    }
+
+    /** Drop a year's segment once its tasks have been saved elsewhere. */
+    static void deleteYear(int year) throws IOException {
+        forget(year);
+        Files.deleteIfExists(segment(year));
+    }
+}
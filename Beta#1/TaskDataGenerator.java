@@ -0,0 +1,154 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Writes synthetic task files for load and soak testing.
+ *
+ * Usage: java TaskDataGenerator <output> [options]
+ *   --lines N          number of lines (default 1000000, up to 100M is fine, output is streamed)
+ *   --from yyyy-MM-dd  first date (default 2000-01-01)
+ *   --to yyyy-MM-dd    last date (default 2100-12-31)
+ *   --dist D           uniform | recent | sequential (default uniform)
+ *   --dup R            fraction of lines reusing an earlier task name (default 0.1)
+ *   --bad R            fraction of malformed / bad-date lines (default 0.0, text only)
+ *   --compressed       write the compressed format instead of date|text
+ *   --seed S           random seed (default 42)
+ */
+public class TaskDataGenerator {
+    private static final String[] WORDS = {
+        "Comp sci", "Final", "meeting", "dentist", "essay", "lab", "review", "gym",
+        "project", "call", "exam", "shopping", "report", "practice", "birthday", "trip"
+    };
+    private static final int NAME_POOL = 1024;
+
+    private final long lines;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final String distribution;
+    private final double duplicateRatio;
+    private final double malformedRatio;
+    private final Random random;
+    private final String[] recentNames = new String[NAME_POOL];
+    private long produced = 0;
+    private long sequence = 0;
+
+    TaskDataGenerator(long lines, LocalDate from, LocalDate to, String distribution,
+                      double duplicateRatio, double malformedRatio, long seed) {
+        this.lines = lines;
+        this.from = from;
+        this.to = to;
+        this.distribution = distribution;
+        this.duplicateRatio = duplicateRatio;
+        this.malformedRatio = malformedRatio;
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: java TaskDataGenerator <output> [--lines N] [--from date] [--to date]"
+                    + " [--dist uniform|recent|sequential] [--dup R] [--bad R] [--compressed] [--seed S]");
+            return;
+        }
+        String output = args[0];
+        long lines = 1_000_000;
+        LocalDate from = LocalDate.of(2000, 1, 1);
+        LocalDate to = LocalDate.of(2100, 12, 31);
+        String dist = "uniform";
+        double dup = 0.1;
+        double bad = 0.0;
+        boolean compressed = false;
+        long seed = 42;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--lines": lines = Long.parseLong(args[++i]); break;
+                case "--from": from = LocalDate.parse(args[++i]); break;
+                case "--to": to = LocalDate.parse(args[++i]); break;
+                case "--dist": dist = args[++i]; break;
+                case "--dup": dup = Double.parseDouble(args[++i]); break;
+                case "--bad": bad = Double.parseDouble(args[++i]); break;
+                case "--compressed": compressed = true; break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+
+        long start = System.nanoTime();
+        TaskDataGenerator generator = new TaskDataGenerator(lines, from, to, dist, dup, bad, seed);
+        if (compressed) {
+            generator.writeCompressed(output);
+        } else {
+            generator.writeText(output);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Wrote %d lines to %s in %.1f s%n", lines, output, seconds);
+    }
+
+    /** Plain date|text lines, including the requested share of bad lines. */
+    void writeText(String path) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8), 1 << 16)) {
+            for (long i = 0; i < lines; i++) {
+                if (malformedRatio > 0 && random.nextDouble() < malformedRatio) {
+                    // Half missing the separator, half with an unparseable date
+                    writer.write(random.nextBoolean() ? nextName() : "20x5-13-40|" + nextName());
+                } else {
+                    writer.write(nextDate() + "|" + nextName());
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    /** Compressed format, streamed through TaskFileFormat (it has no way to store bad lines). */
+    void writeCompressed(String path) throws IOException {
+        TaskFileFormat.write(path, () -> new Iterator<Map.Entry<LocalDate, String>>() {
+            public boolean hasNext() {
+                return produced < lines;
+            }
+
+            public Map.Entry<LocalDate, String> next() {
+                produced++;
+                return new AbstractMap.SimpleImmutableEntry<>(nextDate(), nextName());
+            }
+        }, true);
+    }
+
+    private LocalDate nextDate() {
+        long span = to.toEpochDay() - from.toEpochDay() + 1;
+        long offset;
+        switch (distribution) {
+            case "sequential":
+                // Walk the range once, in date order
+                offset = sequence * span / Math.max(1, lines);
+                sequence++;
+                break;
+            case "recent":
+                // Most tasks close to the end of the range (exponential fall-off)
+                offset = span - 1 - Math.min(span - 1, (long) (-Math.log(1 - random.nextDouble()) * span / 20));
+                break;
+            default:
+                offset = (long) (random.nextDouble() * span);
+        }
+        return LocalDate.ofEpochDay(from.toEpochDay() + offset);
+    }
+
+    private String nextName() {
+        int slot = random.nextInt(NAME_POOL);
+        if (recentNames[slot] != null && random.nextDouble() < duplicateRatio) {
+            return recentNames[slot];
+        }
+        String name = WORDS[random.nextInt(WORDS.length)] + " " + Long.toHexString(random.nextLong() & 0xFFFFFFL);
+        recentNames[slot] = name;
+        return name;
+    }
+}
@@ -0,0 +1,112 @@
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One change to the task map, as published by TaskManager.
+ *
+ * ADDED / UPDATED / REMOVED carry the date and the task before and/or after.
+ * RELOADED means the whole map was replaced by a load; listeners should
+ * drop or rebuild everything.
+ *
+ * 'archive' marks an ADDED or REMOVED that only moved a task between memory
+ * and TaskArchive (restoring or archiving a year). Such events come in
+ * batches of their own. Listeners that mirror the map in memory treat them like
+ * any other add or remove. Replication skips them, since the store's content
+ * did not change.
+ */
+public class TaskEvent {
+    public enum Type { ADDED, UPDATED, REMOVED, RELOADED }
+
+    /** Receives changes in batches; a single add or delete is a batch of one. */
+    public interface Listener {
+        void tasksChanged(List<TaskEvent> events);
+    }
+
+    public final Type type;
+    public final LocalDate date;   // null for RELOADED
+    public final Task before;      // null for ADDED and RELOADED
+    public final Task after;       // null for REMOVED and RELOADED
+    public final boolean archive;  // moved to or from TaskArchive, not a change to the store
+
+    private TaskEvent(Type type, LocalDate date, Task before, Task after, boolean archive) {
+        this.type = type;
+        this.date = date;
+        this.before = before;
+        this.after = after;
+        this.archive = archive;
+    }
+
+    static TaskEvent added(Task task) {
+        return new TaskEvent(Type.ADDED, task.date, null, task, false);
+    }
+
+    static TaskEvent updated(Task before, Task after) {
+        return new TaskEvent(Type.UPDATED, after.date, before, after, false);
+    }
+
+    static TaskEvent removed(Task task) {
+        return new TaskEvent(Type.REMOVED, task.date, task, null, false);
+    }
+
+    /** A task brought back into memory from an archived year. */
+    static TaskEvent restored(Task task) {
+        return new TaskEvent(Type.ADDED, task.date, null, task, true);
+    }
+
+    /** A task moved out of memory into an archived year. */
+    static TaskEvent archived(Task task) {
+        return new TaskEvent(Type.REMOVED, task.date, task, null, true);
+    }
+
+    static TaskEvent reloaded() {
+        return new TaskEvent(Type.RELOADED, null, null, null, false);
+    }
+
+    /** The month this change touches, or null for RELOADED. */
+    public YearMonth month() {
+        return date == null ? null : YearMonth.from(date);
+    }
+
+    /**
+     * Collapse several changes to the same date into one net change, in
+     * first-seen order: added then removed disappears, removed then added
+     * becomes an update, and so on. A RELOADED anywhere replaces the rest.
+     */
+    static List<TaskEvent> coalesce(List<TaskEvent> events) {
+        Map<LocalDate, TaskEvent> net = new LinkedHashMap<>();
+        for (TaskEvent event : events) {
+            if (event.type == Type.RELOADED) {
+                List<TaskEvent> result = new ArrayList<>();
+                result.add(event);
+                return result;
+            }
+            TaskEvent first = net.get(event.date);
+            if (first == null) {
+                net.put(event.date, event);
+                continue;
+            }
+            // Net effect from the state before 'first' to the state after 'event'
+            Task before = first.before;
+            Task after = event.after;
+            if (before == null && after == null) {
+                net.remove(event.date);
+            } else if (before == null) {
+                net.put(event.date, added(after));
+            } else if (after == null) {
+                net.put(event.date, removed(before));
+            } else {
+                net.put(event.date, updated(before, after));
+            }
+        }
+        return new ArrayList<>(net.values());
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.RELOADED ? "RELOADED" : type + " " + date;
+    }
+}
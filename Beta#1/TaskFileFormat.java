@@ -0,0 +1,216 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes task files in either format:
+ *
+ *  - plain text: one "yyyy-MM-dd|task" per line (the original tasks.txt)
+ *  - compressed: GZIP stream of binary records, each one a zig-zag varint
+ *    date delta (in days, from the previous record) and a length-prefixed
+ *    UTF-8 task. Dates are written in sorted order so most deltas fit in
+ *    one byte.
+ *
+ * The format is detected from the first two bytes (the GZIP magic number),
+ * and both formats are read and written as a stream, one task at a time.
+ */
+public class TaskFileFormat {
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    private static final int FORMAT_MAGIC = 0x54534b5a; // "TSKZ"
+    private static final int FORMAT_VERSION = 1;
+
+    /** Receives tasks (and bad lines) as a file is read. */
+    public interface Handler {
+        void task(LocalDate date, String text);
+
+        /** A text line whose date could not be parsed. */
+        default void invalidDate(String line) {
+        }
+
+        /** A text line without a '|' separator. */
+        default void malformedLine(String line) {
+        }
+    }
+
+    /** Returns true if the file starts with the GZIP header. */
+    public static boolean isCompressed(String path) throws IOException {
+        try (InputStream in = new FileInputStream(path)) {
+            return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        }
+    }
+
+    /**
+     * Stream every task in the file to the handler, auto-detecting the format.
+     * Throws FileNotFoundException if the file does not exist.
+     * Returns true if the file was compressed.
+     */
+    public static boolean read(String path, Handler handler) throws IOException {
+        try (InputStream in = new FileInputStream(path)) {
+            return read(in, handler);
+        }
+    }
+
+    /** Same as read(path, handler) for an open stream (e.g. a locked FileChannel). Does not close it. */
+    public static boolean read(InputStream raw, Handler handler) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(raw, 1 << 16);
+        in.mark(2);
+        boolean compressed = in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        in.reset();
+        if (compressed) {
+            readCompressed(in, handler);
+        } else {
+            readText(in, handler);
+        }
+        return compressed;
+    }
+
+    /**
+     * Write all entries to the file in the chosen format, replacing it. Goes
+     * through a temporary file, so a crash mid-write leaves the old file intact.
+     */
+    public static void write(String path, Iterable<Map.Entry<LocalDate, String>> entries, boolean compressed)
+            throws IOException {
+        Path target = Paths.get(path);
+        Path tmp = Paths.get(path + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp.toFile())) {
+            write(out, entries, compressed);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Same as write(path, ...) for an open stream. Flushes but does not close it. */
+    public static void write(OutputStream raw, Iterable<Map.Entry<LocalDate, String>> entries, boolean compressed)
+            throws IOException {
+        OutputStream out = new BufferedOutputStream(raw, 1 << 16);
+        if (compressed) {
+            writeCompressed(out, entries);
+        } else {
+            writeText(out, entries);
+        }
+        out.flush();
+    }
+
+    private static void readText(InputStream in, Handler handler) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] parts = line.split("\\|", 2);
+            if (parts.length == 2) {
+                try {
+                    handler.task(LocalDate.parse(parts[0]), parts[1]);
+                } catch (DateTimeParseException e) {
+                    handler.invalidDate(line);
+                }
+            } else {
+                handler.malformedLine(line);
+            }
+        }
+    }
+
+    private static void writeText(OutputStream out, Iterable<Map.Entry<LocalDate, String>> entries)
+            throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        for (Map.Entry<LocalDate, String> entry : entries) {
+            writer.write(entry.getKey() + "|" + entry.getValue());
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    private static void readCompressed(InputStream raw, Handler handler) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw, 1 << 16)));
+        if (in.readInt() != FORMAT_MAGIC || in.readUnsignedByte() != FORMAT_VERSION) {
+            throw new IOException("Unknown compressed task file format");
+        }
+        long day = 0;
+        byte[] buffer = new byte[256];
+        while (true) {
+            long code = readVarLong(in);
+            if (code == 0) {
+                break;  // end marker
+            }
+            day += unZigZag(code - 1);
+            int length = (int) readVarLong(in);
+            if (length > buffer.length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            in.readFully(buffer, 0, length);
+            handler.task(LocalDate.ofEpochDay(day), new String(buffer, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeCompressed(OutputStream raw, Iterable<Map.Entry<LocalDate, String>> entries)
+            throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(raw, 1 << 16);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip));
+        out.writeInt(FORMAT_MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        long previous = 0;
+        for (Map.Entry<LocalDate, String> entry : entries) {
+            long day = entry.getKey().toEpochDay();
+            writeVarLong(out, zigZag(day - previous) + 1);  // +1 so that 0 can mark the end
+            previous = day;
+            byte[] text = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, text.length);
+            out.write(text);
+        }
+        writeVarLong(out, 0);
+        out.flush();
+        gzip.finish();
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (shift < 64) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated compressed task file");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+        throw new IOException("Corrupt varint in compressed task file");
+    }
+
+    private static long zigZag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    private static long unZigZag(long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
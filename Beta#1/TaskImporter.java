@@ -0,0 +1,215 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Imports many task files at once (a directory or a glob like exports/*.txt).
+ * Files are parsed in parallel on a fork-join pool, then merged into
+ * TaskManager in file-name order and saved once at the end.
+ */
+public class TaskImporter {
+
+    /** What to do when an imported date already has a task. */
+    public enum MergePolicy {
+        KEEP_EXISTING,
+        OVERWRITE,
+        KEEP_BOTH
+    }
+
+    /** Per-file result of a bulk import. */
+    public static class FileResult {
+        final Path file;
+        // Every task line in file order, repeats of a date included, so the
+        // merge policy also decides between lines of the same file
+        final List<Map.Entry<LocalDate, String>> parsed = new ArrayList<>();
+        int linesRead = 0;
+        int skipped = 0;
+        int merged = 0;
+        String error = null;
+
+        FileResult(Path file) {
+            this.file = file;
+        }
+    }
+
+    /** Summary of a whole bulk import. */
+    public static class ImportReport {
+        final List<FileResult> files;
+        final long elapsedNanos;
+
+        ImportReport(List<FileResult> files, long elapsedNanos) {
+            this.files = files;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int totalMerged() {
+            int total = 0;
+            for (FileResult r : files) {
+                total += r.merged;
+            }
+            return total;
+        }
+
+        public int totalLines() {
+            int total = 0;
+            for (FileResult r : files) {
+                total += r.linesRead;
+            }
+            return total;
+        }
+
+        public void print() {
+            for (FileResult r : files) {
+                if (r.error != null) {
+                    System.out.println("  " + r.file + ": ERROR " + r.error);
+                } else {
+                    System.out.println("  " + r.file + ": " + r.merged + " merged, "
+                            + r.skipped + " skipped (" + r.linesRead + " lines)");
+                }
+            }
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            double linesPerSec = seconds > 0 ? totalLines() / seconds : totalLines();
+            System.out.printf("%d tasks merged from %d files in %.3f s (%.0f lines/s)%n",
+                    totalMerged(), files.size(), seconds, linesPerSec);
+        }
+    }
+
+    /** Returns true if the given path looks like a directory or a glob pattern. */
+    public static boolean isBulkPath(String pathOrGlob) {
+        if (pathOrGlob.contains("*") || pathOrGlob.contains("?") || pathOrGlob.contains("{")) {
+            return true;
+        }
+        return Files.isDirectory(Paths.get(pathOrGlob));
+    }
+
+    /**
+     * Expand a directory or glob into a sorted list of regular files.
+     * A directory means every file directly inside it.
+     */
+    static List<Path> resolveFiles(String pathOrGlob) throws IOException {
+        Path dir;
+        String glob;
+        Path asPath = Paths.get(pathOrGlob);
+        if (Files.isDirectory(asPath)) {
+            dir = asPath;
+            glob = "*";
+        } else {
+            dir = asPath.getParent() == null ? Paths.get(".") : asPath.getParent();
+            glob = asPath.getFileName().toString();
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+            for (Path p : stream) {
+                if (Files.isRegularFile(p)) {
+                    files.add(p);
+                }
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    /**
+     * Import every file matched by a directory or glob, merging with the given policy.
+     * Saves tasks once at the end.
+     */
+    public static ImportReport importAll(String pathOrGlob, MergePolicy policy) {
+        long start = System.nanoTime();
+        List<Path> files;
+        try {
+            files = resolveFiles(pathOrGlob);
+        } catch (IOException e) {
+            System.err.println("Error listing '" + pathOrGlob + "': " + e.getMessage());
+            return new ImportReport(new ArrayList<>(), System.nanoTime() - start);
+        }
+
+        // Parse all files in parallel; each worker only touches its own FileResult
+        List<FileResult> results = ForkJoinPool.commonPool().invoke(new ParseTask(files, 0, files.size()));
+
+        // Merge serially, in file order, so the result does not depend on thread timing.
+        // One batch: listeners see the net change per date once, after the last file
+        TaskManager.batch(() -> {
+            for (FileResult r : results) {
+                for (Map.Entry<LocalDate, String> entry : r.parsed) {
+                    if (TaskManager.mergeTask(entry.getKey(), entry.getValue(), policy)) {
+                        r.merged++;
+                    }
+                }
+                r.parsed.clear();
+            }
+        });
+
+        TaskManager.saveTasks();
+        return new ImportReport(results, System.nanoTime() - start);
+    }
+
+    /** Reads one file (plain or compressed) into its own FileResult, never touching the shared map. */
+    static FileResult parseFile(Path file) {
+        FileResult result = new FileResult(file);
+        try {
+            TaskFileFormat.read(file.toString(), new TaskFileFormat.Handler() {
+                public void task(LocalDate date, String text) {
+                    result.linesRead++;
+                    result.parsed.add(new AbstractMap.SimpleImmutableEntry<>(date, text));
+                }
+
+                public void invalidDate(String line) {
+                    result.linesRead++;
+                    result.skipped++;
+                }
+
+                public void malformedLine(String line) {
+                    result.linesRead++;
+                    result.skipped++;
+                }
+            });
+        } catch (IOException e) {
+            result.error = e.getMessage();
+        }
+        return result;
+    }
+
+    /** Splits the file list in half until each piece is small enough to parse directly. */
+    private static class ParseTask extends RecursiveTask<List<FileResult>> {
+        private static final long serialVersionUID = 1L;
+        private static final int THRESHOLD = 4;
+        private final List<Path> files;
+        private final int from;
+        private final int to;
+
+        ParseTask(List<Path> files, int from, int to) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<FileResult> compute() {
+            if (to - from <= THRESHOLD) {
+                List<FileResult> out = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    out.add(parseFile(files.get(i)));
+                }
+                return out;
+            }
+            int mid = (from + to) >>> 1;
+            ParseTask left = new ParseTask(files, from, mid);
+            ParseTask right = new ParseTask(files, mid, to);
+            left.fork();
+            List<FileResult> rightResult = right.compute();
+            List<FileResult> out = left.join();
+            out.addAll(rightResult);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Secondary indexes over task priority, status and words, kept up to date by
+ * TaskManager on every add/update/delete.
+ *
+ *  - one date-ordered set per status, so "done tasks this month" is a range seek
+ *  - an ordered set of open tasks by priority (highest first, then earliest date),
+ *    so "top K open tasks" reads only the first K entries
+ *  - a date-ordered set per lower-case word of the task text, used by TaskSearch
+ */
+public class TaskIndex {
+    private static final Comparator<Task> BY_PRIORITY =
+            Comparator.comparing((Task t) -> t.priority).reversed().thenComparing(t -> t.date);
+
+    private static final Map<LocalDate, Task> byDate = new HashMap<>();
+    private static final EnumMap<Task.Status, TreeSet<LocalDate>> byStatus = new EnumMap<>(Task.Status.class);
+    private static final TreeSet<Task> openByPriority = new TreeSet<>(BY_PRIORITY);
+    private static final Map<String, TreeSet<LocalDate>> byWord = new HashMap<>();
+
+    static {
+        for (Task.Status status : Task.Status.values()) {
+            byStatus.put(status, new TreeSet<>());
+        }
+    }
+
+    static synchronized void clear() {
+        byDate.clear();
+        openByPriority.clear();
+        byWord.clear();
+        for (TreeSet<LocalDate> dates : byStatus.values()) {
+            dates.clear();
+        }
+    }
+
+    /** Add or replace the task on its date. */
+    static synchronized void put(Task task) {
+        remove(task.date);
+        byDate.put(task.date, task);
+        byStatus.get(task.status).add(task.date);
+        if (task.status == Task.Status.OPEN) {
+            openByPriority.add(task);
+        }
+        for (String word : words(task.text)) {
+            byWord.computeIfAbsent(word, w -> new TreeSet<>()).add(task.date);
+        }
+    }
+
+    static synchronized void remove(LocalDate date) {
+        Task old = byDate.remove(date);
+        if (old != null) {
+            byStatus.get(old.status).remove(date);
+            openByPriority.remove(old);
+            for (String word : words(old.text)) {
+                TreeSet<LocalDate> dates = byWord.get(word);
+                if (dates != null) {
+                    dates.remove(date);
+                    if (dates.isEmpty()) {
+                        byWord.remove(word);
+                    }
+                }
+            }
+        }
+    }
+
+    /** The distinct lower-case words (letters and digits) of a text. */
+    static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /** How many tasks contain the word (lower case). */
+    static synchronized int wordCount(String word) {
+        TreeSet<LocalDate> dates = byWord.get(word);
+        return dates == null ? 0 : dates.size();
+    }
+
+    /**
+     * Dates (ascending) of tasks containing the word, between from and to inclusive
+     * (either may be null). Copied so the caller can iterate without the lock.
+     */
+    static synchronized List<LocalDate> datesWithWord(String word, LocalDate from, LocalDate to) {
+        TreeSet<LocalDate> dates = byWord.get(word);
+        if (dates == null) {
+            return new ArrayList<>();
+        }
+        NavigableSet<LocalDate> range = dates;
+        if (from != null && to != null) {
+            range = dates.subSet(from, true, to, true);
+        } else if (from != null) {
+            range = dates.tailSet(from, true);
+        } else if (to != null) {
+            range = dates.headSet(to, true);
+        }
+        return new ArrayList<>(range);
+    }
+
+    /**
+     * Heap estimate for the indexes. Dates and texts are shared with the task
+     * map and counted there; the task objects, tags and times are counted here.
+     */
+    static synchronized List<MemoryFootprint.Item> footprint() {
+        long records = 0;
+        for (Task task : byDate.values()) {
+            records += MemoryFootprint.align(MemoryFootprint.HEADER + 7 * MemoryFootprint.REF);
+            if (!task.tags.isEmpty()) {
+                // unmodifiable wrapper + LinkedHashSet (its map's entries carry two extra links)
+                records += MemoryFootprint.align(MemoryFootprint.HEADER + 2 * MemoryFootprint.REF)
+                        + MemoryFootprint.hashMap(task.tags.size()) + task.tags.size() * 2L * MemoryFootprint.REF
+                        + MemoryFootprint.strings(task.tags);
+            }
+            if (task.startTime != null) {
+                records += MemoryFootprint.align(MemoryFootprint.HEADER + 4 + 3);  // LocalTime
+            }
+            if (task.end != null) {
+                records += MemoryFootprint.align(MemoryFootprint.HEADER + 2 * MemoryFootprint.REF)
+                        + MemoryFootprint.LOCAL_DATE + MemoryFootprint.align(MemoryFootprint.HEADER + 4 + 3);
+            }
+        }
+        List<MemoryFootprint.Item> items = new ArrayList<>();
+        items.add(new MemoryFootprint.Item("Task records", byDate.size(), 0, records,
+                MemoryFootprint.hashMap(byDate.size())));
+
+        long statusOverhead = MemoryFootprint.treeMap(openByPriority.size());
+        int statusEntries = openByPriority.size();
+        for (TreeSet<LocalDate> dates : byStatus.values()) {
+            statusOverhead += MemoryFootprint.treeMap(dates.size());
+            statusEntries += dates.size();
+        }
+        items.add(new MemoryFootprint.Item("Status/priority index", statusEntries, 0, 0, statusOverhead));
+
+        long wordKeys = 0;
+        long wordOverhead = MemoryFootprint.hashMap(byWord.size());
+        int postings = 0;
+        for (Map.Entry<String, TreeSet<LocalDate>> entry : byWord.entrySet()) {
+            wordKeys += MemoryFootprint.string(entry.getKey());
+            wordOverhead += MemoryFootprint.treeMap(entry.getValue().size());
+            postings += entry.getValue().size();
+        }
+        items.add(new MemoryFootprint.Item("Word index", postings, wordKeys, 0, wordOverhead));
+        return items;
+    }
+
+    /** The full task for a date, or null. */
+    public static synchronized Task get(LocalDate date) {
+        return byDate.get(date);
+    }
+
+    /** The K most important open tasks, highest priority first. Waits for a background load. */
+    public static List<Task> topOpen(int k) {
+        TaskManager.awaitLoaded();
+        List<Task> result = new ArrayList<>();
+        synchronized (TaskIndex.class) {
+            Iterator<Task> it = openByPriority.iterator();
+            while (it.hasNext() && result.size() < k) {
+                result.add(it.next());
+            }
+        }
+        return result;
+    }
+
+    /** All tasks with the given status in a month, ordered by date. Waits only for that month to load. */
+    public static List<Task> withStatus(Task.Status status, YearMonth month) {
+        TaskManager.awaitMonth(month);
+        List<Task> result = new ArrayList<>();
+        synchronized (TaskIndex.class) {
+            for (LocalDate date : byStatus.get(status).subSet(month.atDay(1), true, month.atEndOfMonth(), true)) {
+                result.add(byDate.get(date));
+            }
+        }
+        return result;
+    }
+
+    public static int countWithStatus(Task.Status status) {
+        TaskManager.awaitLoaded();
+        synchronized (TaskIndex.class) {
+            return byStatus.get(status).size();
+        }
+    }
+}
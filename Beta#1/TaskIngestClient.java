@@ -0,0 +1,214 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Client side of TaskIngestServer. The send methods only buffer a request
+ * and return its id; flush() writes everything buffered and readReply()
+ * returns the next reply, in request order. So a caller can send thousands
+ * of requests before reading the first reply.
+ *
+ * As a tool it pipelines a task file into a running calendar:
+ *   java TaskIngestClient <port|socket path> <file> [--window N]
+ * where N (default 1024) is how many replies may be outstanding.
+ */
+public class TaskIngestClient implements AutoCloseable {
+
+    /** One reply: request id, status (TaskIngestServer.OK etc.) and body. */
+    public static class Reply {
+        public final int id;
+        public final byte status;
+        public final ByteBuffer body;
+
+        Reply(int id, byte status, ByteBuffer body) {
+            this.id = id;
+            this.status = status;
+            this.body = body;
+        }
+
+        public boolean ok() {
+            return status == TaskIngestServer.OK;
+        }
+
+        /** The stored text of a GET reply. */
+        public String text() {
+            return StandardCharsets.UTF_8.decode(body.duplicate()).toString();
+        }
+
+        /** The entries of a RANGE reply, date -> stored text. */
+        public Map<LocalDate, String> entries() {
+            ByteBuffer in = body.duplicate();
+            Map<LocalDate, String> entries = new TreeMap<>();
+            for (int n = in.getInt(); n > 0; n--) {
+                LocalDate date = LocalDate.ofEpochDay(in.getInt());
+                byte[] text = new byte[in.getInt()];
+                in.get(text);
+                entries.put(date, new String(text, StandardCharsets.UTF_8));
+            }
+            return entries;
+        }
+    }
+
+    private final SocketChannel channel;
+    private ByteBuffer out = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+    private int nextId = 1;
+    private int lastId;
+
+    /** Connect to "port" on localhost or to a Unix socket path. */
+    public TaskIngestClient(String address) throws IOException {
+        if (address.matches("\\d+")) {
+            channel = SocketChannel.open(StandardProtocolFamily.INET);
+            channel.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address)));
+        } else {
+            channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(UnixDomainSocketAddress.of(Paths.get(address)));
+        }
+        in.flip();  // empty, ready for reading
+    }
+
+    public int add(LocalDate date, String stored) throws IOException {
+        byte[] text = stored.getBytes(StandardCharsets.UTF_8);
+        begin(TaskIngestServer.ADD, 4 + text.length).putInt((int) date.toEpochDay()).put(text);
+        return lastId;
+    }
+
+    public int delete(LocalDate date) throws IOException {
+        begin(TaskIngestServer.DELETE, 4).putInt((int) date.toEpochDay());
+        return lastId;
+    }
+
+    public int get(LocalDate date) throws IOException {
+        begin(TaskIngestServer.GET, 4).putInt((int) date.toEpochDay());
+        return lastId;
+    }
+
+    public int range(LocalDate from, LocalDate to, int limit) throws IOException {
+        begin(TaskIngestServer.RANGE, 12).putInt((int) from.toEpochDay()).putInt((int) to.toEpochDay()).putInt(limit);
+        return lastId;
+    }
+
+    /** Write a frame header into the output buffer, making room for the body, which the caller puts next. */
+    private ByteBuffer begin(byte op, int bodyLength) throws IOException {
+        int frame = 4 + 4 + 1 + bodyLength;
+        if (frame - 4 > TaskIngestServer.MAX_FRAME) {
+            throw new IOException("request too large");
+        }
+        if (out.remaining() < frame) {
+            flush();
+            if (out.capacity() < frame) {
+                out = ByteBuffer.allocate(frame);
+            }
+        }
+        lastId = nextId++;
+        return out.putInt(frame - 4).putInt(lastId).put(op);
+    }
+
+    /** Write every buffered request. */
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /** The next reply (blocking). Flushes first so a reply can never wait on our own buffer. */
+    public Reply readReply() throws IOException {
+        if (out.position() > 0) {
+            flush();
+        }
+        fill(4);
+        int length = in.getInt();
+        fill(length);
+        int id = in.getInt();
+        byte status = in.get();
+        byte[] body = new byte[length - 5];
+        in.get(body);
+        return new Reply(id, status, ByteBuffer.wrap(body));
+    }
+
+    private void fill(int bytes) throws IOException {
+        if (in.remaining() >= bytes) {
+            return;
+        }
+        if (in.capacity() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(bytes);
+            bigger.put(in);
+            in = bigger;
+        } else {
+            in.compact();
+        }
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) {
+                throw new EOFException("server closed the connection");
+            }
+        }
+        in.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** Pipeline every task of a file (plain or compressed) as ADD requests. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java TaskIngestClient <port|socket path> <file> [--window N]");
+            return;
+        }
+        int window = args.length > 3 && args[2].equals("--window") ? Integer.parseInt(args[3]) : 1024;
+        long start = System.nanoTime();
+        long[] counts = new long[3];  // sent, replaced, failed
+        try (TaskIngestClient client = new TaskIngestClient(args[0])) {
+            long[] outstanding = {0};
+            IOException[] error = {null};
+            TaskFileFormat.read(args[1], (date, text) -> {
+                if (error[0] != null) {
+                    return;
+                }
+                try {
+                    client.add(date, text);
+                    counts[0]++;
+                    if (++outstanding[0] >= window) {
+                        // Keep the pipe full: drain half the window, then carry on sending
+                        while (outstanding[0] > window / 2) {
+                            client.count(client.readReply(), counts);
+                            outstanding[0]--;
+                        }
+                    }
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            });
+            if (error[0] != null) {
+                throw error[0];
+            }
+            while (outstanding[0]-- > 0) {
+                client.count(client.readReply(), counts);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("%d tasks sent in %.2f s (%.0f/s), %d replaced, %d rejected%n",
+                counts[0], seconds, counts[0] / seconds, counts[1], counts[2]);
+    }
+
+    private void count(Reply reply, long[] counts) {
+        if (!reply.ok()) {
+            counts[2]++;
+        } else if (reply.body.get(0) == 1) {
+            counts[1]++;
+        }
+    }
+}
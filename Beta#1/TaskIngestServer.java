@@ -0,0 +1,354 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+
+/**
+ * Binary request/response server for bulk ingestion by other programs.
+ *
+ * One selector thread serves every connection. Clients may pipeline: send
+ * any number of requests without waiting, and read the replies later; each
+ * connection's replies come back in request order. Every pass of the
+ * selector loop takes all complete requests from all connections, applies
+ * them in arrival order as one TaskManager batch, saves once, and only then
+ * queues the replies, so an acknowledged add or delete is on disk.
+ *
+ * Frames are big-endian and length-prefixed (the length excludes itself):
+ *
+ *   request:  int length, int id, byte op, body
+ *     ADD    1  int epochDay, UTF-8 stored text (rest of frame)
+ *     DELETE 2  int epochDay
+ *     GET    3  int epochDay
+ *     RANGE  4  int fromEpochDay, int toEpochDay, int limit
+ *   reply:    int length, int id, byte status, body
+ *     OK: ADD -> byte 1 if a task was replaced; GET -> UTF-8 stored text;
+ *         RANGE -> int count, then count x (int epochDay, int length, UTF-8 stored text)
+ *     NOT_FOUND (GET, DELETE), BAD_REQUEST, READ_ONLY: no body
+ *
+ * An epochDay must fall in the years 1 to 9999, the dates tasks.txt holds;
+ * anything else is a BAD_REQUEST.
+ *
+ * Start it with -Dtasks.ingest=port (localhost TCP) or -Dtasks.ingest=path
+ * (Unix domain socket); TaskIngestClient speaks the client side.
+ */
+public class TaskIngestServer {
+    static final byte ADD = 1;
+    static final byte DELETE = 2;
+    static final byte GET = 3;
+    static final byte RANGE = 4;
+
+    static final byte OK = 0;
+    static final byte NOT_FOUND = 1;
+    static final byte BAD_REQUEST = 2;
+    static final byte READ_ONLY = 3;
+
+    static final int MAX_FRAME = 1 << 20;
+    private static final int MAX_RANGE = 10_000;
+    private static final long MIN_DAY = LocalDate.of(1, 1, 1).toEpochDay();
+    private static final long MAX_DAY = LocalDate.of(9999, 12, 31).toEpochDay();
+
+    /** One connection: bytes not yet parsed and replies not yet written. */
+    private static class Connection {
+        final SocketChannel channel;
+        ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /** A parsed request and, once it has run, its reply. */
+    private static class Request {
+        final Connection from;
+        final int id;
+        final byte op;
+        final ByteBuffer body;
+        ByteBuffer reply;
+
+        Request(Connection from, int id, byte op, ByteBuffer body) {
+            this.from = from;
+            this.id = id;
+            this.op = op;
+            this.body = body;
+        }
+    }
+
+    /** "port" for localhost TCP, anything else is a Unix socket path. Call after the tasks are loaded. */
+    public static void start(String address) throws IOException {
+        ServerSocketChannel server;
+        SocketAddress bindTo;
+        if (address.matches("\\d+")) {
+            server = ServerSocketChannel.open(StandardProtocolFamily.INET);
+            bindTo = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+        } else {
+            Path path = Paths.get(address);
+            Files.deleteIfExists(path);  // left over from an earlier run
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            bindTo = UnixDomainSocketAddress.of(path);
+        }
+        server.bind(bindTo);
+        server.configureBlocking(false);
+        Selector selector = Selector.open();
+        server.register(selector, SelectionKey.OP_ACCEPT);
+
+        Thread t = new Thread(() -> {
+            try {
+                serve(selector);
+            } catch (IOException e) {
+                System.err.println("Task ingest server stopped: " + e.getMessage());
+            }
+        }, "task-ingest");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void serve(Selector selector) throws IOException {
+        List<Request> requests = new ArrayList<>();
+        while (true) {
+            selector.select();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    if (key.isAcceptable()) {
+                        SocketChannel channel = ((ServerSocketChannel) key.channel()).accept();
+                        if (channel != null) {
+                            channel.configureBlocking(false);
+                            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+                        }
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isReadable()) {
+                        read(key, connection, requests);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        write(key, connection);
+                    }
+                } catch (IOException e) {
+                    close(key);
+                }
+            }
+            if (requests.isEmpty()) {
+                continue;
+            }
+
+            execute(requests);
+            Set<Connection> replied = new LinkedHashSet<>();
+            for (Request request : requests) {
+                request.from.out.addLast(request.reply);
+                replied.add(request.from);
+            }
+            requests.clear();
+            for (Connection connection : replied) {
+                SelectionKey key = connection.channel.keyFor(selector);
+                if (key == null || !key.isValid()) {
+                    continue;
+                }
+                try {
+                    write(key, connection);
+                } catch (IOException e) {
+                    close(key);
+                }
+            }
+        }
+    }
+
+    /** Read what is available and cut it into complete frames. */
+    private static void read(SelectionKey key, Connection connection, List<Request> requests) throws IOException {
+        int n = connection.channel.read(connection.in);
+        if (n < 0) {
+            // Client is done sending; replies still owed are written before closing
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            if (connection.out.isEmpty()) {
+                close(key);
+            }
+            return;
+        }
+        ByteBuffer in = connection.in;
+        in.flip();
+        while (in.remaining() >= 4) {
+            int length = in.getInt(in.position());
+            if (length < 5 || length > MAX_FRAME) {
+                throw new IOException("bad frame length " + length);
+            }
+            if (in.remaining() < 4 + length) {
+                break;
+            }
+            in.getInt();
+            int id = in.getInt();
+            byte op = in.get();
+            byte[] body = new byte[length - 5];
+            in.get(body);
+            requests.add(new Request(connection, id, op, ByteBuffer.wrap(body)));
+        }
+        in.compact();
+        if (!in.hasRemaining()) {
+            // A frame bigger than the buffer is on its way
+            ByteBuffer bigger = ByteBuffer.allocate(Math.min(in.capacity() * 2, MAX_FRAME + 4));
+            in.flip();
+            connection.in = bigger.put(in);
+        }
+    }
+
+    private static void write(SelectionKey key, Connection connection) throws IOException {
+        while (!connection.out.isEmpty()) {
+            ByteBuffer next = connection.out.peekFirst();
+            connection.channel.write(next);
+            if (next.hasRemaining()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+            connection.out.removeFirst();
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        if ((key.interestOps() & SelectionKey.OP_READ) == 0) {
+            close(key);  // client half-closed and has every reply
+        }
+    }
+
+    private static void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // already gone
+        }
+    }
+
+    /**
+     * Run one pass's requests in arrival order. Consecutive adds and deletes
+     * are applied together; a read first applies the writes queued before it,
+     * so every request sees the ones sent before it. One save at the end.
+     */
+    private static void execute(List<Request> requests) {
+        List<Request> writes = new ArrayList<>();
+        boolean changed = false;
+        for (Request request : requests) {
+            try {
+                if (request.op == ADD || request.op == DELETE) {
+                    if (TaskManager.isReadOnly()) {
+                        request.reply = reply(request, READ_ONLY, 0);
+                    } else {
+                        writes.add(request);
+                    }
+                    continue;
+                }
+                changed |= applyWrites(writes);
+                if (request.op == GET) {
+                    LocalDate date = date(request.body);
+                    String stored = TaskManager.storedBetween(date, date, 1).get(date);
+                    if (stored == null) {
+                        request.reply = reply(request, NOT_FOUND, 0);
+                    } else {
+                        byte[] text = stored.getBytes(StandardCharsets.UTF_8);
+                        request.reply = reply(request, OK, text.length).put(text);
+                    }
+                } else if (request.op == RANGE) {
+                    LocalDate from = date(request.body);
+                    LocalDate to = date(request.body);
+                    int limit = Math.max(0, Math.min(request.body.getInt(), MAX_RANGE));
+                    NavigableMap<LocalDate, String> found = TaskManager.storedBetween(from, to, limit);
+                    List<byte[]> texts = new ArrayList<>();
+                    int size = 4;
+                    for (String stored : found.values()) {
+                        byte[] text = stored.getBytes(StandardCharsets.UTF_8);
+                        texts.add(text);
+                        size += 8 + text.length;
+                    }
+                    ByteBuffer reply = reply(request, OK, size).putInt(found.size());
+                    int i = 0;
+                    for (LocalDate date : found.keySet()) {
+                        byte[] text = texts.get(i++);
+                        reply.putInt((int) date.toEpochDay()).putInt(text.length).put(text);
+                    }
+                    request.reply = reply;
+                } else {
+                    request.reply = reply(request, BAD_REQUEST, 0);
+                }
+            } catch (RuntimeException e) {
+                request.reply = reply(request, BAD_REQUEST, 0);
+            }
+        }
+        changed |= applyWrites(writes);
+        if (changed) {
+            TaskManager.saveTasks();
+        }
+        for (Request request : requests) {
+            request.reply.flip();
+        }
+    }
+
+    /** Apply and answer the queued writes as one batch. Returns true if there were any. */
+    private static boolean applyWrites(List<Request> writes) {
+        List<LocalDate> dates = new ArrayList<>();
+        List<String> stored = new ArrayList<>();
+        List<Request> valid = new ArrayList<>();
+        for (Request request : writes) {
+            try {
+                LocalDate date = date(request.body);
+                String text = null;
+                if (request.op == ADD) {
+                    text = StandardCharsets.UTF_8.decode(request.body).toString();
+                    if (text.isEmpty() || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                        throw new IllegalArgumentException("bad task text");
+                    }
+                }
+                dates.add(date);
+                stored.add(text);
+                valid.add(request);
+            } catch (RuntimeException e) {
+                request.reply = reply(request, BAD_REQUEST, 0);
+            }
+        }
+        writes.clear();
+        if (valid.isEmpty()) {
+            return false;
+        }
+        boolean[] existed = TaskManager.applyChanges(dates, stored);
+        for (int i = 0; i < valid.size(); i++) {
+            Request request = valid.get(i);
+            if (request.op == ADD) {
+                request.reply = reply(request, OK, 1).put((byte) (existed[i] ? 1 : 0));
+            } else {
+                request.reply = reply(request, existed[i] ? OK : NOT_FOUND, 0);
+            }
+        }
+        return true;
+    }
+
+    /** The next epochDay of a request body as a date. Out of range throws, which answers BAD_REQUEST. */
+    private static LocalDate date(ByteBuffer body) {
+        int day = body.getInt();
+        if (day < MIN_DAY || day > MAX_DAY) {
+            throw new IllegalArgumentException("date out of range: " + day);
+        }
+        return LocalDate.ofEpochDay(day);
+    }
+
+    /** A reply buffer with its header written and room for 'bodyLength' more bytes. */
+    private static ByteBuffer reply(Request request, byte status, int bodyLength) {
+        return ByteBuffer.allocate(4 + 5 + bodyLength).putInt(5 + bodyLength).putInt(request.id).put(status);
+    }
+}
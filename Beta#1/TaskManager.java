@@ -1,103 +1,894 @@
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
-import java.util.HashMap;
+import java.time.YearMonth;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 
 public class TaskManager {
-    private static HashMap<LocalDate, String> tasks = new HashMap<>();
+    // Concurrent so month views can read while a background load is still filling it
+    private static final ConcurrentSkipListMap<LocalDate, String> tasks = new ConcurrentSkipListMap<>();
     private static final String DEFAULT_FILE_NAME = "tasks.txt";
+    // Start with -Dtasks.compress=true to write tasks.txt compressed
+    private static final boolean COMPRESS_BY_DEFAULT = Boolean.getBoolean("tasks.compress");
+    // Format of tasks.txt; an existing compressed file stays compressed
+    private static boolean compressed = COMPRESS_BY_DEFAULT;
+
+    // Background load progress. While 'loaded' is false, every month before
+    // 'completeBefore' is already in the map (only trusted while the file is sorted)
+    private static final Object loadLock = new Object();
+    private static volatile boolean loaded = true;
+    private static volatile boolean sortedSoFar = true;
+    private static volatile YearMonth completeBefore = null;
+
+    // Start with -Dtasks.sharded=true to keep tasks in month shards (see TaskShards);
+    // an existing tasks.d store is always used
+    private static final boolean SHARD_BY_DEFAULT = Boolean.getBoolean("tasks.sharded");
+    private static volatile boolean sharded = false;
+    // Sharded mode: months changed since the last save, which are all a save rewrites
+    private static final Set<YearMonth> dirtyMonths = ConcurrentHashMap.newKeySet();
+    // Sharded load: months listed in the manifest, claimed by a reader, and fully in the map
+    private static volatile Set<YearMonth> shardMonths = null;
+    private static final Set<YearMonth> claimedMonths = ConcurrentHashMap.newKeySet();
+    private static final Set<YearMonth> loadedMonths = ConcurrentHashMap.newKeySet();
+
+    // Start with -Dtasks.hotYears=N to keep only this year and the N-1 before it
+    // in memory; older years move to TaskArchive and are read from disk on demand
+    private static final int HOT_YEARS = Integer.getInteger("tasks.hotYears", 0);
+    // Archived years brought back into memory; a segment is deleted once a save has written its tasks
+    private static final Set<Integer> restoredYears = ConcurrentHashMap.newKeySet();
+
+    // Saves come from the menu and from TaskIngestServer's thread; one at a time
+    private static final Object saveLock = new Object();
+    // Changes come from the menu, TaskIngestServer and the replication follower: one
+    // outermost batch at a time, its events delivered before the lock is let go.
+    // Taken before saveLock, never while holding it
+    private static final Object writeLock = new Object();
+
+    // A replication follower only takes changes from its leader and never writes files
+    private static volatile boolean readOnly = false;
+
+    // Change feed: every add/update/delete is published to these listeners
+    private static final List<TaskEvent.Listener> listeners = new CopyOnWriteArrayList<>();
+    // Events held back while the current thread is inside batch()
+    private static final ThreadLocal<List<TaskEvent>> pending = new ThreadLocal<>();
+
+    static {
+        // Derived structures that only need the net change
+        addListener(TaskStats::tasksChanged);
+        addListener(Schedule::tasksChanged);
+        addListener(ReminderService::tasksChanged);
+        addListener(events -> {
+            if (sharded) {
+                for (TaskEvent event : events) {
+                    if (event.date != null) {
+                        dirtyMonths.add(event.month());
+                    }
+                }
+            }
+        });
+    }
+
+    /** Register for change events. Listeners run on the thread that made the change. */
+    public static void addListener(TaskEvent.Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(TaskEvent.Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Run several changes as one batch: listeners get a single list with the
+     * net change per date once 'changes' has finished (nested calls join the
+     * outer batch). Used by imports so caches are invalidated once, not per line.
+     * The outermost batch holds the store's write lock from the first change
+     * to the last listener, so batches from different threads never interleave.
+     */
+    public static void batch(Runnable changes) {
+        if (pending.get() != null) {
+            changes.run();
+            return;
+        }
+        synchronized (writeLock) {
+            List<TaskEvent> events = new ArrayList<>();
+            pending.set(events);
+            try {
+                changes.run();
+            } finally {
+                pending.remove();
+                deliver(TaskEvent.coalesce(events));
+            }
+        }
+    }
+
+    /** Only called inside a batch (putTask and removeTask start one if needed). */
+    private static void publish(TaskEvent event) {
+        List<TaskEvent> batched = pending.get();
+        if (batched == null) {
+            batch(() -> publish(event));
+            return;
+        }
+        batched.add(event);
+    }
+
+    private static void deliver(List<TaskEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        for (TaskEvent.Listener listener : listeners) {
+            try {
+                listener.tasksChanged(events);
+            } catch (RuntimeException e) {
+                System.err.println("Task listener failed: " + e);
+            }
+        }
+    }
+
+    /**
+     * Start loading tasks.txt on a background thread and return right away.
+     * Callers that need tasks block only until the data they need is in.
+     */
+    public static CompletableFuture<Void> loadTasksInBackground() {
+        beginLoad();
+        return CompletableFuture.runAsync(TaskManager::load);
+    }
 
     public static void loadTasks() {
-        tasks.clear();
-        try (BufferedReader reader = new BufferedReader(new FileReader(DEFAULT_FILE_NAME))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split("\\|", 2);
-                if (parts.length == 2) {
-                    try {
-                        LocalDate date = LocalDate.parse(parts[0]);
-                        tasks.put(date, parts[1]);
-                    } catch (DateTimeParseException e) {
-                        System.err.println("Skipping invalid date in tasks file: " + line);
+        beginLoad();
+        load();
+    }
+
+    private static void load() {
+        try {
+            if (sharded && TaskShards.exists()) {
+                loadShards();
+            } else {
+                loadFile();
+                if (sharded) {
+                    // First run with -Dtasks.sharded=true: split tasks.txt into month shards
+                    for (LocalDate date : tasks.keySet()) {
+                        dirtyMonths.add(YearMonth.from(date));
                     }
-                } else {
-                    System.err.println("Skipping malformed line in tasks file: " + line);
                 }
             }
         } catch (FileNotFoundException e) {
             System.out.println("No existing task file found. Starting fresh.");
         } catch (IOException e) {
             System.err.println("Error reading the task file: " + e.getMessage());
+        } finally {
+            endLoad();
+        }
+        publish(TaskEvent.reloaded());
+        if (!dirtyMonths.isEmpty()) {
+            saveTasks();
+        }
+        if (HOT_YEARS > 0) {
+            archiveColdYears();
+        }
+    }
+
+    /**
+     * Move every year before the hot window out of memory into archive
+     * segments, then save, so the next start only reads the hot years.
+     * This runs after the load, when the menu and the ingest server may
+     * already be writing. So the write lock is held from reading the cold
+     * tasks until they are removed, and no edit falls in between.
+     */
+    static void archiveColdYears() {
+        boolean moved;
+        synchronized (writeLock) {
+            moved = moveColdYears();
+        }
+        if (moved) {
+            saveTasks();
+        }
+    }
+
+    /** The part of archiveColdYears done under the write lock. Returns true if anything moved. */
+    private static boolean moveColdYears() {
+        int firstHotYear = LocalDate.now().getYear() - HOT_YEARS + 1;
+        NavigableMap<LocalDate, String> cold = tasks.headMap(LocalDate.of(firstHotYear, 1, 1), false);
+        if (cold.isEmpty()) {
+            return false;
+        }
+        TreeMap<Integer, TreeMap<LocalDate, String>> byYear = new TreeMap<>();
+        for (Map.Entry<LocalDate, String> entry : storedEntries(cold)) {
+            byYear.computeIfAbsent(entry.getKey().getYear(), y -> new TreeMap<>()).put(entry.getKey(), entry.getValue());
+        }
+        try {
+            for (Map.Entry<Integer, TreeMap<LocalDate, String>> year : byYear.entrySet()) {
+                restoredYears.remove(year.getKey());  // its segment is about to be rewritten, not deleted
+                TreeMap<LocalDate, String> all = new TreeMap<>(TaskArchive.readYear(year.getKey()));
+                all.putAll(year.getValue());
+                TaskArchive.writeYear(year.getKey(), all);
+            }
+        } catch (IOException e) {
+            System.err.println("Error archiving old tasks (kept in memory): " + e.getMessage());
+            return false;
+        }
+        // Archived, not deleted: the events say so, so replication does not ship them as deletes
+        batch(() -> {
+            for (TreeMap<LocalDate, String> year : byYear.values()) {
+                for (LocalDate date : year.keySet()) {
+                    if (tasks.remove(date) != null) {
+                        Task old = TaskIndex.get(date);
+                        TaskIndex.remove(date);
+                        publish(TaskEvent.archived(old != null ? old : new Task(date, "")));
+                    }
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * An edit to an archived year brings the whole year back into memory first.
+     * The restored tasks are published as a batch of their own, delivered right
+     * away even inside the caller's batch. So listeners (the dirty-month tracker
+     * among them) see them before the edit, and the edit's events are not
+     * coalesced with the restore. Nothing is saved here. The segment is deleted
+     * by the next save, once that save has written the tasks. Returns false,
+     * after saying why, if the segment could not be read. The year then stays
+     * archived and the edit is not applied.
+     */
+    private static boolean restoreIfArchived(int year) {
+        if (!TaskArchive.isArchived(year)) {
+            return true;
+        }
+        synchronized (writeLock) {
+            if (!TaskArchive.isArchived(year)) {
+                return true;  // another thread restored it meanwhile
+            }
+            NavigableMap<LocalDate, String> archived;
+            try {
+                archived = TaskArchive.readYear(year);
+            } catch (IOException e) {
+                System.err.println("Error reading archived " + year + ", change not applied: " + e.getMessage());
+                return false;
+            }
+            TaskArchive.forget(year);
+            List<TaskEvent> outer = pending.get();
+            List<TaskEvent> events = new ArrayList<>();
+            pending.set(events);
+            try {
+                for (Map.Entry<LocalDate, String> entry : archived.entrySet()) {
+                    Task task = Task.parse(entry.getKey(), entry.getValue());
+                    tasks.put(task.date, task.text);
+                    TaskIndex.put(task);
+                    publish(TaskEvent.restored(task));
+                }
+            } finally {
+                if (outer != null) {
+                    pending.set(outer);
+                } else {
+                    pending.remove();
+                }
+                deliver(events);
+            }
+            restoredYears.add(year);
+            return true;
+        }
+    }
+
+    /** Delete the segments of restored years that the save just made has written. */
+    private static void deleteRestoredSegments(List<Integer> saved) {
+        for (int year : saved) {
+            if (!restoredYears.remove(year) || TaskArchive.isArchived(year)) {
+                continue;  // archived again since
+            }
+            try {
+                TaskArchive.deleteYear(year);
+            } catch (IOException e) {
+                System.err.println("Error removing restored archive segment: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Texts of an archived month, shaped like the in-memory map. */
+    private static NavigableMap<LocalDate, String> archivedMonth(YearMonth month) {
+        TreeMap<LocalDate, String> texts = new TreeMap<>();
+        for (Map.Entry<LocalDate, String> entry : TaskArchive.readMonth(month).entrySet()) {
+            texts.put(entry.getKey(), Task.parse(entry.getKey(), entry.getValue()).text);
+        }
+        return Collections.unmodifiableNavigableMap(texts);
+    }
+
+    /**
+     * The loader fills the index and schedule itself as it streams, so month
+     * views can use them early; everyone else hears RELOADED at the end.
+     */
+    private static void loadRecord(LocalDate date, String text) {
+        Task task = Task.parse(date, text);
+        tasks.put(date, task.text);
+        TaskIndex.put(task);
+        Schedule.put(task);
+    }
+
+    private static void loadFile() throws IOException {
+        LocalDate[] previous = {null};
+        compressed = TaskFileFormat.read(DEFAULT_FILE_NAME, new TaskFileFormat.Handler() {
+            public void task(LocalDate date, String text) {
+                loadRecord(date, text);
+                LocalDate last = previous[0];
+                if (last != null && date.isBefore(last)) {
+                    sortedSoFar = false;  // hand-edited file, month views wait for the whole load
+                } else if (last != null && !YearMonth.from(date).equals(YearMonth.from(last))) {
+                    // Sorted file moved on to a later month: earlier months are complete
+                    synchronized (loadLock) {
+                        completeBefore = YearMonth.from(date);
+                        loadLock.notifyAll();
+                    }
+                }
+                previous[0] = date;
+            }
+
+            public void invalidDate(String line) {
+                System.err.println("Skipping invalid date in tasks file: " + line);
+            }
+
+            public void malformedLine(String line) {
+                System.err.println("Skipping malformed line in tasks file: " + line);
+            }
+        }) || COMPRESS_BY_DEFAULT;
+    }
+
+    /** Read the manifest, then every shard in month order (skipping any a reader already pulled in). */
+    private static void loadShards() throws IOException {
+        TreeMap<YearMonth, Integer> manifest = TaskShards.readManifest();
+        synchronized (loadLock) {
+            shardMonths = manifest.keySet();
+            loadLock.notifyAll();
+        }
+        for (YearMonth month : manifest.keySet()) {
+            loadShard(month);
+        }
+    }
+
+    /** Load one month's shard unless another thread has already claimed it. */
+    private static void loadShard(YearMonth month) throws IOException {
+        if (!claimedMonths.add(month)) {
+            return;
+        }
+        try {
+            boolean shardCompressed = TaskShards.readShard(month, new TaskFileFormat.Handler() {
+                public void task(LocalDate date, String text) {
+                    loadRecord(date, text);
+                }
+
+                public void invalidDate(String line) {
+                    System.err.println("Skipping invalid date in " + TaskShards.shardPath(month) + ": " + line);
+                }
+
+                public void malformedLine(String line) {
+                    System.err.println("Skipping malformed line in " + TaskShards.shardPath(month) + ": " + line);
+                }
+            });
+            if (shardCompressed) {
+                compressed = true;
+            }
+        } finally {
+            synchronized (loadLock) {
+                loadedMonths.add(month);
+                loadLock.notifyAll();
+            }
+        }
+    }
+
+    private static void beginLoad() {
+        synchronized (loadLock) {
+            loaded = false;
+            sortedSoFar = true;
+            completeBefore = null;
+            sharded = SHARD_BY_DEFAULT || TaskShards.exists();
+            shardMonths = null;
+            claimedMonths.clear();
+            loadedMonths.clear();
+            dirtyMonths.clear();
+            restoredYears.clear();  // not saved yet, so their segments are still the copy on disk
+            TaskArchive.scan();
+            tasks.clear();
+            TaskIndex.clear();
+            Schedule.clear();
+        }
+    }
+
+    private static void endLoad() {
+        synchronized (loadLock) {
+            loaded = true;
+            loadLock.notifyAll();
+        }
+    }
+
+    /** Follower start-up: readers wait (as for a load) until the first snapshot arrives. */
+    static void expectSnapshot() {
+        beginLoad();
+    }
+
+    /** Replace everything with a leader's snapshot (date -> stored text). */
+    static void loadSnapshot(Map<LocalDate, String> stored) {
+        beginLoad();
+        try {
+            for (Map.Entry<LocalDate, String> entry : stored.entrySet()) {
+                loadRecord(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            endLoad();
+        }
+        publish(TaskEvent.reloaded());
+    }
+
+    /**
+     * The whole store in stored form, archived years included (for replication
+     * snapshots). Call it inside whileNoChanges for a copy no batch is half-way through.
+     * Throws UncheckedIOException if an archived year cannot be read, rather than
+     * handing out a copy with that year missing.
+     */
+    static NavigableMap<LocalDate, String> storedSnapshot() {
+        awaitLoaded();
+        TreeMap<LocalDate, String> copy = new TreeMap<>();
+        for (Map.Entry<LocalDate, String> entry : storedEntries(tasks)) {
+            copy.put(entry.getKey(), entry.getValue());
+        }
+        for (int year : TaskArchive.archivedYears()) {
+            try {
+                copy.putAll(TaskArchive.readYear(year));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Run 'action' while no batch is in progress on any thread: every change
+     * made so far has been applied and delivered to the listeners, and none
+     * can start until it returns. Replication takes its snapshots this way.
+     */
+    static void whileNoChanges(Runnable action) {
+        synchronized (writeLock) {
+            action.run();
+        }
+    }
+
+    /**
+     * Apply one batch shipped by the leader: "+date|stored" puts, "-date" removes.
+     * Runs as one batch so listeners see it the way the leader did.
+     */
+    static void applyReplicated(List<String> records) {
+        batch(() -> {
+            for (String record : records) {
+                if (record.startsWith("+")) {
+                    String[] parts = record.substring(1).split("\\|", 2);
+                    LocalDate date = LocalDate.parse(parts[0]);
+                    putTask(Task.parse(date, parts[1]));
+                } else if (record.startsWith("-")) {
+                    removeTask(LocalDate.parse(record.substring(1)));
+                }
+            }
+        });
+    }
+
+    /**
+     * Apply puts (stored text) and removes (null text) in order, as one batch
+     * of change events. Returns, per change, whether its date had a task
+     * before it. Does NOT save; callers flush once when they are done.
+     */
+    static boolean[] applyChanges(List<LocalDate> dates, List<String> stored) {
+        awaitLoaded();
+        boolean[] existed = new boolean[dates.size()];
+        batch(() -> {
+            for (int i = 0; i < existed.length; i++) {
+                LocalDate date = dates.get(i);
+                restoreIfArchived(date.getYear());
+                existed[i] = tasks.containsKey(date);
+                if (stored.get(i) != null) {
+                    putTask(Task.parse(date, stored.get(i)));
+                } else {
+                    removeTask(date);
+                }
+            }
+        });
+        return existed;
+    }
+
+    /**
+     * Up to 'limit' tasks from 'from' to 'to' (inclusive) in stored form,
+     * ordered by date, archived years included.
+     */
+    static NavigableMap<LocalDate, String> storedBetween(LocalDate from, LocalDate to, int limit) {
+        TreeMap<LocalDate, String> result = new TreeMap<>();
+        if (from.isAfter(to)) {
+            return result;
+        }
+        awaitLoaded();
+        for (Map.Entry<LocalDate, String> entry : storedEntries(tasks.subMap(from, true, to, true))) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.put(entry.getKey(), entry.getValue());
+        }
+        for (int year : TaskArchive.archivedYears().subSet(from.getYear(), true, to.getYear(), true)) {
+            for (int m = 1; m <= 12; m++) {
+                YearMonth month = YearMonth.of(year, m);
+                if (!month.atEndOfMonth().isBefore(from) && !month.atDay(1).isAfter(to)) {
+                    result.putAll(TaskArchive.readMonth(month).subMap(from, true, to, true));
+                }
+            }
+        }
+        while (result.size() > limit) {
+            result.pollLastEntry();
+        }
+        return result;
+    }
+
+    static void setReadOnly(boolean value) {
+        readOnly = value;
+    }
+
+    public static boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /** False (with a message) on a read-only follower; changes must be made on the leader. */
+    private static boolean writable() {
+        if (readOnly) {
+            System.out.println("This calendar is a read-only replica; make changes on the leader.");
+            return false;
+        }
+        return true;
+    }
+
+    /** Block until a background load (if any) has finished. */
+    public static void awaitLoaded() {
+        waitUntil(() -> loaded);
+    }
+
+    /**
+     * Block only until the given month's tasks are loaded. With a sorted file
+     * this returns as soon as the loader has moved past that month. With month
+     * shards the caller reads that month's shard itself instead of waiting.
+     */
+    public static void awaitMonth(YearMonth month) {
+        if (loaded) {
+            return;
+        }
+        if (sharded) {
+            waitUntil(() -> loaded || shardMonths != null);
+            Set<YearMonth> months = shardMonths;
+            if (!loaded && months != null && months.contains(month)) {
+                try {
+                    loadShard(month);
+                } catch (IOException e) {
+                    System.err.println("Error reading " + TaskShards.shardPath(month) + ": " + e.getMessage());
+                }
+            }
+            // The snapshot, not the field: a new load may reset shardMonths meanwhile
+            waitUntil(() -> loaded || loadedMonths.contains(month) || months == null || !months.contains(month));
+            return;
+        }
+        waitUntil(() -> loaded || (sortedSoFar && completeBefore != null && month.isBefore(completeBefore)));
+    }
+
+    private static void waitUntil(BooleanSupplier ready) {
+        if (ready.getAsBoolean()) {
+            return;
+        }
+        synchronized (loadLock) {
+            while (!ready.getAsBoolean()) {
+                try {
+                    loadLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
         }
     }
 
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    public static boolean isSharded() {
+        return sharded;
+    }
+
     public static void saveTasks() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(DEFAULT_FILE_NAME))) {
-            for (Map.Entry<LocalDate, String> entry : tasks.entrySet()) {
-                writer.write(entry.getKey() + "|" + entry.getValue());
-                writer.newLine();
+        if (readOnly) {
+            return;
+        }
+        awaitLoaded();
+        synchronized (saveLock) {
+            // Taken before writing: these years' tasks are all in memory by now
+            List<Integer> restored = new ArrayList<>(restoredYears);
+            try {
+                if (sharded) {
+                    saveDirtyShards();
+                } else {
+                    TaskFileFormat.write(DEFAULT_FILE_NAME, storedEntries(tasks), compressed);
+                }
+                deleteRestoredSegments(restored);
+            } catch (IOException e) {
+                System.err.println("Error saving tasks: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Rewrite only the shards of months changed since the last save, then the manifest. */
+    private static void saveDirtyShards() throws IOException {
+        Map<YearMonth, Integer> counts = new TreeMap<>();
+        List<YearMonth> months = new ArrayList<>(dirtyMonths);
+        int done = 0;
+        try {
+            for (YearMonth month : months) {
+                // Cleared before writing, so a change made during the write marks it dirty again
+                dirtyMonths.remove(month);
+                NavigableMap<LocalDate, String> monthTasks = tasks.subMap(month.atDay(1), true, month.atEndOfMonth(), true);
+                if (monthTasks.isEmpty()) {
+                    TaskShards.deleteShard(month);
+                } else {
+                    TaskShards.writeShard(month, storedEntries(monthTasks), compressed);
+                }
+                counts.put(month, monthTasks.size());
+                done++;
             }
         } catch (IOException e) {
-            System.err.println("Error saving tasks: " + e.getMessage());
+            // Retry the month that failed and the ones not reached on the next save
+            dirtyMonths.addAll(months.subList(done, months.size()));
+            throw e;
+        } finally {
+            if (!counts.isEmpty()) {
+                TaskShards.updateManifest(counts);
+            }
         }
     }
 
+    /**
+     * Tasks as written to the file: text plus the priority/status suffix when needed.
+     */
+    private static Iterable<Map.Entry<LocalDate, String>> storedEntries(NavigableMap<LocalDate, String> source) {
+        return () -> new Iterator<Map.Entry<LocalDate, String>>() {
+            private final Iterator<Map.Entry<LocalDate, String>> it = source.entrySet().iterator();
+
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            public Map.Entry<LocalDate, String> next() {
+                Map.Entry<LocalDate, String> entry = it.next();
+                Task task = TaskIndex.get(entry.getKey());
+                String stored = task == null ? entry.getValue() : task.toStored();
+                return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), stored);
+            }
+        };
+    }
+
+    /**
+     * Switch tasks.txt between plain text and the compressed format.
+     * Takes effect on the next save.
+     */
+    public static void setCompressed(boolean compress) {
+        compressed = compress;
+    }
+
+    public static boolean isCompressed() {
+        return compressed;
+    }
+
     /**
      * Merge tasks from a specified file (does NOT clear existing tasks first).
      * If a date is duplicated, overwrites the old task with the new one.
+     * Plain and compressed files are both accepted.
      */
     public static int importTasksFromFile(String filePath) {
-        int importCount = 0;
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split("\\|", 2);
-                if (parts.length == 2) {
-                    try {
-                        LocalDate date = LocalDate.parse(parts[0]);
-                        tasks.put(date, parts[1]);  // overwrites if date already exists
-                        importCount++;
-                    } catch (DateTimeParseException e) {
+        if (!writable()) {
+            return 0;
+        }
+        awaitLoaded();
+        int[] importCount = {0};
+        batch(() -> {
+            try {
+                TaskFileFormat.read(filePath, new TaskFileFormat.Handler() {
+                    public void task(LocalDate date, String text) {
+                        putTask(Task.parse(date, text));  // overwrites if date already exists
+                        importCount[0]++;
+                    }
+
+                    public void invalidDate(String line) {
                         System.err.println("Skipping invalid date in import file: " + line);
                     }
-                } else {
-                    System.err.println("Skipping malformed line in import file: " + line);
-                }
+
+                    public void malformedLine(String line) {
+                        System.err.println("Skipping malformed line in import file: " + line);
+                    }
+                });
+            } catch (FileNotFoundException e) {
+                System.err.println("File not found: " + filePath + " - " + e.getMessage());
+            } catch (IOException e) {
+                System.err.println("Error reading file '" + filePath + "': " + e.getMessage());
             }
-        } catch (FileNotFoundException e) {
-            System.err.println("File not found: " + filePath + " - " + e.getMessage());
-        } catch (IOException e) {
-            System.err.println("Error reading file '" + filePath + "': " + e.getMessage());
-        }
+        });
         saveTasks();
-        return importCount;
+        return importCount[0];
+    }
+
+    /**
+     * Every add/replace goes through here. The index holds the full task, so it
+     * is updated in place; everything else hears about it through an event.
+     * Always runs inside a batch, so under the write lock.
+     */
+    private static void putTask(Task task) {
+        if (pending.get() == null) {
+            batch(() -> putTask(task));
+            return;
+        }
+        if (!restoreIfArchived(task.date.getYear())) {
+            return;
+        }
+        Task old = TaskIndex.get(task.date);
+        tasks.put(task.date, task.text);
+        TaskIndex.put(task);
+        publish(old == null ? TaskEvent.added(task) : TaskEvent.updated(old, task));
+    }
+
+    /**
+     * Every delete goes through here, publishing a REMOVED event.
+     * Always runs inside a batch, so under the write lock.
+     */
+    private static void removeTask(LocalDate date) {
+        if (pending.get() == null) {
+            batch(() -> removeTask(date));
+            return;
+        }
+        if (tasks.remove(date) != null) {
+            Task old = TaskIndex.get(date);
+            TaskIndex.remove(date);
+            publish(TaskEvent.removed(old != null ? old : new Task(date, "")));
+        }
+    }
+
+    /**
+     * Merge one parsed task into the map using the given policy.
+     * 'stored' is the text as read from a file (it may carry a priority/status suffix).
+     * Does NOT save; callers flush once when they are done.
+     * Returns true if the map changed.
+     */
+    static boolean mergeTask(LocalDate date, String stored, TaskImporter.MergePolicy policy) {
+        if (readOnly) {
+            return false;
+        }
+        awaitLoaded();
+        Task incoming = Task.parse(date, stored);
+        boolean[] changed = {false};
+        // Lookup and change in one batch, so a change from another thread cannot come between them
+        batch(() -> {
+            if (!restoreIfArchived(date.getYear())) {
+                return;
+            }
+            Task existing = TaskIndex.get(date);
+            if (existing == null || policy == TaskImporter.MergePolicy.OVERWRITE) {
+                putTask(incoming);
+                changed[0] = true;
+            } else if (policy == TaskImporter.MergePolicy.KEEP_BOTH && !existing.text.equals(incoming.text)) {
+                // Only one task per day is supported, so keep both texts on that day
+                putTask(existing.withText(existing.text + "; " + incoming.text));
+                changed[0] = true;
+            }
+            // else KEEP_EXISTING, or identical text
+        });
+        return changed[0];
     }
 
     /**
      * Add a (single) task for a specific date, then immediately save to disk.
      */
     public static void addTask(LocalDate date, String task) {
-        tasks.put(date, task);
+        addTask(new Task(date, task));
+    }
+
+    /**
+     * Add a task with priority/status/tags, then immediately save to disk.
+     */
+    public static void addTask(Task task) {
+        if (!writable()) {
+            return;
+        }
+        awaitLoaded();
+        putTask(task);
         saveTasks();
     }
 
     /**
-     * Returns the entire tasks map (date -> single task).
+     * Replace the task on a date with an edited copy and save. Returns false if
+     * there is none. The lookup and the change run in one batch, so a change
+     * from another thread is not lost in between.
+     */
+    private static boolean editTask(LocalDate date, UnaryOperator<Task> edit) {
+        if (!writable()) {
+            return false;
+        }
+        awaitLoaded();
+        boolean[] found = {false};
+        batch(() -> {
+            Task task = taskToEdit(date);
+            if (task != null) {
+                putTask(edit.apply(task));
+                found[0] = true;
+            }
+        });
+        if (found[0]) {
+            saveTasks();
+        }
+        return found[0];
+    }
+
+    /** The task on a date, about to be edited: an archived one brings its year back first. */
+    private static Task taskToEdit(LocalDate date) {
+        if (TaskArchive.isArchived(date.getYear()) && TaskArchive.readMonth(YearMonth.from(date)).containsKey(date)) {
+            restoreIfArchived(date.getYear());
+        }
+        return TaskIndex.get(date);
+    }
+
+    /**
+     * Change the status of the task on a date. Returns false if there is none.
      */
-    public static HashMap<LocalDate, String> getTasks() {
+    public static boolean setStatus(LocalDate date, Task.Status status) {
+        return editTask(date, task -> task.withStatus(status));
+    }
+
+    /**
+     * Change the priority of the task on a date. Returns false if there is none.
+     */
+    public static boolean setPriority(LocalDate date, Task.Priority priority) {
+        return editTask(date, task -> task.withPriority(priority));
+    }
+
+    /**
+     * Returns the entire tasks map (date -> single task), ordered by date.
+     * Waits for a background load to finish first.
+     */
+    public static NavigableMap<LocalDate, String> getTasks() {
+        awaitLoaded();
         return tasks;
     }
 
+    /**
+     * Returns the tasks of one month, ordered by date.
+     * Only waits until that month has been loaded; an archived month is read from its segment.
+     */
+    public static NavigableMap<LocalDate, String> getTasksForMonth(YearMonth month) {
+        if (TaskArchive.isArchived(month.getYear())) {
+            return archivedMonth(month);
+        }
+        awaitMonth(month);
+        return tasks.subMap(month.atDay(1), true, month.atEndOfMonth(), true);
+    }
+
     /**
      * Returns the single task for a specific date, or null if none exist.
      */
     public static String getTaskForDate(LocalDate date) {
+        if (TaskArchive.isArchived(date.getYear())) {
+            return archivedMonth(YearMonth.from(date)).get(date);
+        }
+        awaitMonth(YearMonth.from(date));
         return tasks.getOrDefault(date, null);
     }
 
@@ -106,40 +897,176 @@ public class TaskManager {
      * Returns true if deleted, false if not found.
      */
     public static boolean deleteTaskByName(String taskName) {
+        if (!writable()) {
+            return false;
+        }
+        awaitLoaded();
+        boolean[] removed = {false};
+        // Search and delete in one batch, so the match cannot change in between
+        batch(() -> {
+            LocalDate found = firstNamed(taskName);
+            if (found != null && restoreIfArchived(found.getYear())) {
+                removeTask(found);
+                removed[0] = true;
+            }
+        });
+        if (!removed[0]) {
+            return false;  // Task not found
+        }
+        saveTasks();
+        return true;  // Task successfully removed
+    }
+
+    /** Date of the first task (archived years included) with this text, ignoring case; null if none. */
+    private static LocalDate firstNamed(String taskName) {
+        LocalDate found = null;
         for (Map.Entry<LocalDate, String> entry : tasks.entrySet()) {
             if (entry.getValue().equalsIgnoreCase(taskName)) {
-                tasks.remove(entry.getKey());
-                saveTasks();
-                return true;  // Task successfully removed
+                found = entry.getKey();
+                break;
             }
         }
-        return false;  // Task not found
+        for (int year : TaskArchive.archivedYears()) {
+            if (found != null && year > found.getYear()) {
+                break;
+            }
+            for (int m = 1; m <= 12; m++) {
+                for (Map.Entry<LocalDate, String> entry : archivedMonth(YearMonth.of(year, m)).entrySet()) {
+                    if (found != null && !entry.getKey().isBefore(found)) {
+                        return found;
+                    }
+                    if (entry.getValue().equalsIgnoreCase(taskName)) {
+                        return entry.getKey();
+                    }
+                }
+            }
+        }
+        return found;
     }
 
     /**
-     * NEW METHOD: View tasks that match *today's* date, in a style
-     * similar to 'viewTasksByMonth'. Iterates over all tasks and checks
-     * which ones are for today's date.
+     * Delete every task from 'from' to 'to' (inclusive, either may be null for
+     * open-ended) whose text matches 'pattern' (null matches any text).
+     * Runs as one pass over that date range (archived months in it included),
+     * one batch of change events and a single save. With dryRun nothing is removed.
+     * Otherwise the scan runs inside the batch, so a task changed by another
+     * thread after a preview is only deleted if it still matches.
+     * Returns the matching entries (for a delete, the ones removed), ordered by date.
      */
-    public static void viewTasksForToday() {
-        LocalDate today = LocalDate.now();
-        System.out.println("\n===== Tasks for " + today + " =====");
-        boolean tasksFound = false;
+    public static NavigableMap<LocalDate, String> deleteMatching(Pattern pattern, LocalDate from, LocalDate to,
+                                                                 boolean dryRun) {
+        awaitLoaded();
+        if (dryRun) {
+            return matching(pattern, from, to);
+        }
+        if (!writable()) {
+            return new TreeMap<>();
+        }
+        NavigableMap<LocalDate, String> matched = new TreeMap<>();
+        batch(() -> {
+            matched.putAll(matching(pattern, from, to));
+            for (Iterator<LocalDate> it = matched.keySet().iterator(); it.hasNext(); ) {
+                LocalDate date = it.next();
+                if (restoreIfArchived(date.getYear())) {
+                    removeTask(date);
+                } else {
+                    it.remove();  // its year could not be read back, so it is still there
+                }
+            }
+        });
+        if (!matched.isEmpty()) {
+            saveTasks();
+        }
+        return matched;
+    }
+
+    /** Tasks from 'from' to 'to' (either may be null) whose text matches 'pattern', archived ones included. */
+    private static NavigableMap<LocalDate, String> matching(Pattern pattern, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, String> range = tasks;
+        if (from != null && to != null) {
+            range = tasks.subMap(from, true, to, true);
+        } else if (from != null) {
+            range = tasks.tailMap(from, true);
+        } else if (to != null) {
+            range = tasks.headMap(to, true);
+        }
+        NavigableMap<LocalDate, String> matched = new TreeMap<>();
+        for (Map.Entry<LocalDate, String> entry : range.entrySet()) {
+            if (pattern == null || pattern.matcher(entry.getValue()).find()) {
+                matched.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (int year : TaskArchive.archivedYears().subSet(from == null ? Integer.MIN_VALUE : from.getYear(), true,
+                to == null ? Integer.MAX_VALUE : to.getYear(), true)) {
+            for (int m = 1; m <= 12; m++) {
+                for (Map.Entry<LocalDate, String> entry : archivedMonth(YearMonth.of(year, m)).entrySet()) {
+                    LocalDate date = entry.getKey();
+                    if ((from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to))
+                            && (pattern == null || pattern.matcher(entry.getValue()).find())) {
+                        matched.put(date, entry.getValue());
+                    }
+                }
+            }
+        }
+        return matched;
+    }
 
-        // Iterate over all tasks
-        if (tasks != null && !tasks.isEmpty()) {
-            for (Map.Entry<LocalDate, String> entry : tasks.entrySet()) {
-                LocalDate taskDate = entry.getKey();
-                // Compare: if it matches today's date
-                if (taskDate.equals(today)) {
-                    System.out.println(taskDate + ": " + entry.getValue());
-                    tasksFound = true;
+    /**
+     * Pattern for deleteMatching: "re:" followed by a regular expression
+     * (matched anywhere in the text), otherwise a glob over the whole text
+     * where * is any run of characters and ? any one. Case-insensitive.
+     */
+    public static Pattern textPattern(String spec) {
+        if (spec.startsWith("re:")) {
+            return Pattern.compile(spec.substring(3), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        }
+        StringBuilder regex = new StringBuilder("^");
+        StringBuilder literal = new StringBuilder();
+        for (char c : spec.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
                 }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
             }
         }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.append('$').toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+    }
+
+    /** Heap estimate for the task map: date keys, text strings and skip-list nodes. */
+    static MemoryFootprint.Item footprint() {
+        int n = tasks.size();
+        return new MemoryFootprint.Item("Tasks (date -> text)", n, n * MemoryFootprint.LOCAL_DATE,
+                MemoryFootprint.strings(tasks.values()), n * MemoryFootprint.SKIP_LIST_ENTRY);
+    }
 
-        if (!tasksFound) {
+    /**
+     * NEW METHOD: View tasks that match *today's* date, in a style
+     * similar to 'viewTasksByMonth'. Reads today's tasks through TaskPager,
+     * one page at a time, instead of scanning every task; prints all pages
+     * (the interactive, page-by-page view is CalendarDisplay.viewTasksForDay).
+     */
+    public static void viewTasksForToday() {
+        LocalDate today = LocalDate.now();
+        System.out.println("\n===== Tasks for " + today + " =====");
+        TaskPager.Page page = TaskPager.day(today, 20);
+        if (page.tasks.isEmpty()) {
             System.out.println("No tasks for today.");
         }
+        while (true) {
+            for (Task task : page.tasks) {
+                System.out.println(task.date + ": " + task.text);
+            }
+            if (page.nextCursor == null) {
+                break;
+            }
+            page = TaskPager.next(page.nextCursor, 20);
+        }
     }
 }
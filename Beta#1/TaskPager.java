@@ -0,0 +1,94 @@
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Page-at-a-time access to the tasks of a month, a day or any date range.
+ *
+ * Every page ends with an opaque cursor that records the range and where the
+ * page stopped (last date + how many tasks on that date were returned). The
+ * next page seeks straight to that date in the sorted map, so each page costs
+ * O(log n + page size) however deep into the range it is.
+ */
+public class TaskPager {
+
+    /** One page of tasks plus the cursor for the next page (null on the last page). */
+    public static class Page {
+        public final List<Task> tasks;
+        public final String nextCursor;
+
+        Page(List<Task> tasks, String nextCursor) {
+            this.tasks = tasks;
+            this.nextCursor = nextCursor;
+        }
+    }
+
+    public static Page month(YearMonth month, int size) {
+        return page(month.atDay(1), month.atEndOfMonth(), month.atDay(1), 0, size);
+    }
+
+    public static Page day(LocalDate date, int size) {
+        return page(date, date, date, 0, size);
+    }
+
+    /** First page of tasks from 'from' to 'to', both inclusive. */
+    public static Page range(LocalDate from, LocalDate to, int size) {
+        return page(from, to, from, 0, size);
+    }
+
+    /** The page after the one that returned this cursor. */
+    public static Page next(String cursor, int size) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return page(LocalDate.parse(parts[0]), LocalDate.parse(parts[1]), LocalDate.parse(parts[2]),
+                    Integer.parseInt(parts[3]), size);
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Up to 'size' tasks from 'at' to 'to', skipping the first 'skip' tasks on
+     * 'at' (already returned by the previous page).
+     */
+    private static Page page(LocalDate from, LocalDate to, LocalDate at, int skip, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        NavigableMap<LocalDate, String> source = YearMonth.from(at).equals(YearMonth.from(to))
+                ? TaskManager.getTasksForMonth(YearMonth.from(at))  // only waits for that month
+                : TaskManager.getTasks();
+        Iterator<Map.Entry<LocalDate, String>> it = source.subMap(at, true, to, true).entrySet().iterator();
+
+        List<Task> tasks = new ArrayList<>();
+        LocalDate lastDate = at;
+        int onLastDate = skip;
+        while (it.hasNext() && tasks.size() < size) {
+            Map.Entry<LocalDate, String> entry = it.next();
+            if (entry.getKey().equals(at) && skip > 0) {
+                skip--;
+                continue;
+            }
+            Task task = TaskIndex.get(entry.getKey());
+            tasks.add(task != null && task.text.equals(entry.getValue()) ? task : new Task(entry.getKey(), entry.getValue()));
+            onLastDate = entry.getKey().equals(lastDate) ? onLastDate + 1 : 1;
+            lastDate = entry.getKey();
+        }
+
+        String cursor = it.hasNext() ? encode(from, to, lastDate, onLastDate) : null;
+        return new Page(tasks, cursor);
+    }
+
+    private static String encode(LocalDate from, LocalDate to, LocalDate at, int skip) {
+        String raw = from + "|" + to + "|" + at + "|" + skip;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,180 @@
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Programmatic, lazy access to tasks for any date range and filter.
+ *
+ * Results are produced one at a time straight from the date-ordered task map,
+ * never collected into a list, so year-wide or all-time queries run in
+ * constant memory. Use stream() for a plain pull-based Stream, or publisher()
+ * for a Flow.Publisher that only produces as many tasks as subscribers request.
+ */
+public class TaskQuery {
+
+    /** Tasks from 'from' to 'to' (inclusive, either may be null for open-ended) that match the filter. */
+    public static Stream<Task> stream(LocalDate from, LocalDate to, Predicate<Task> filter) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                iterator(from, to, filter), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public static Stream<Task> stream(LocalDate from, LocalDate to) {
+        return stream(from, to, t -> true);
+    }
+
+    /** Same results as stream(), as a Flow.Publisher with backpressure, delivered on the common pool. */
+    public static Flow.Publisher<Task> publisher(LocalDate from, LocalDate to, Predicate<Task> filter) {
+        return publisher(from, to, filter, ForkJoinPool.commonPool());
+    }
+
+    /** Same results as stream(), as a Flow.Publisher with backpressure, delivered on 'executor'. */
+    public static Flow.Publisher<Task> publisher(LocalDate from, LocalDate to, Predicate<Task> filter,
+                                                 Executor executor) {
+        // Each subscriber gets its own lazy pass over the range
+        return subscriber -> {
+            TaskSubscription subscription = new TaskSubscription(subscriber, iterator(from, to, filter), executor);
+            subscriber.onSubscribe(subscription);
+        };
+    }
+
+    /** A lazy iterator over the matching tasks; reads the map as it goes. */
+    static Iterator<Task> iterator(LocalDate from, LocalDate to, Predicate<Task> filter) {
+        NavigableMap<LocalDate, String> range = TaskManager.getTasks();
+        if (from != null && to != null) {
+            range = range.subMap(from, true, to, true);
+        } else if (from != null) {
+            range = range.tailMap(from, true);
+        } else if (to != null) {
+            range = range.headMap(to, true);
+        }
+        Iterator<Map.Entry<LocalDate, String>> entries = range.entrySet().iterator();
+
+        return new Iterator<Task>() {
+            private Task next = advance();
+
+            private Task advance() {
+                while (entries.hasNext()) {
+                    Map.Entry<LocalDate, String> entry = entries.next();
+                    Task task = TaskIndex.get(entry.getKey());
+                    if (task == null || !task.text.equals(entry.getValue())) {
+                        task = new Task(entry.getKey(), entry.getValue());
+                    }
+                    if (filter.test(task)) {
+                        return task;
+                    }
+                }
+                return null;
+            }
+
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            public Task next() {
+                Task current = next;
+                if (current == null) {
+                    throw new NoSuchElementException();
+                }
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Emits tasks only while there is outstanding demand. All signals to the
+     * subscriber come from a single drain loop at a time, so request() can be
+     * called from inside onNext without recursion.
+     */
+    private static class TaskSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super Task> subscriber;
+        private final Iterator<Task> source;
+        private final Executor executor;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean done = new AtomicBoolean();
+        // A bad request(n), delivered by the drain loop so signals stay serial
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        TaskSubscription(Flow.Subscriber<? super Task> subscriber, Iterator<Task> source, Executor executor) {
+            this.subscriber = subscriber;
+            this.source = source;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error.compareAndSet(null, new IllegalArgumentException("request must be positive, was " + n));
+                schedule();
+                return;
+            }
+            // Add without overflowing: Long.MAX_VALUE means unbounded
+            demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            done.set(true);
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            while (true) {
+                if (error.get() != null && done.compareAndSet(false, true)) {
+                    subscriber.onError(error.get());
+                }
+                while (!done.get() && error.get() == null && demand.get() > 0) {
+                    Task task;
+                    try {
+                        if (!source.hasNext()) {
+                            if (done.compareAndSet(false, true)) {
+                                subscriber.onComplete();
+                            }
+                            break;
+                        }
+                        task = source.next();
+                    } catch (RuntimeException e) {
+                        if (done.compareAndSet(false, true)) {
+                            subscriber.onError(e);
+                        }
+                        break;
+                    }
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    subscriber.onNext(task);
+                }
+                // An empty range completes even without demand
+                if (!done.get() && error.get() == null && !source.hasNext() && done.compareAndSet(false, true)) {
+                    subscriber.onComplete();
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
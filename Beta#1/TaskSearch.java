@@ -0,0 +1,268 @@
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Small search language for tasks, parsed and planned once, then run as a stream.
+ *
+ *   month:2025-02 text:final -holiday before:2025-06-01
+ *
+ * Terms (all must match; prefix any term with '-' to exclude it):
+ *   word or text:word    task text contains the word (case-insensitive)
+ *   "two words"          task text contains the phrase
+ *   on:DATE  after:DATE  before:DATE  from:DATE  to:DATE  month:YYYY-MM  year:YYYY
+ *   priority:high  status:done  tag:school
+ *
+ * Planning: every date term is folded into one [from, to] range that is used
+ * as a range seek. The rarest positive word is looked up in the word index
+ * and drives the scan, so only tasks containing it are read. Everything else
+ * is checked per task as the residual filter.
+ */
+public class TaskSearch {
+
+    /** A parsed and planned query; run it as often as needed. */
+    public static class Query {
+        final String source;
+        LocalDate from = null;  // inclusive, null = open
+        LocalDate to = null;    // inclusive, null = open
+        boolean empty = false;  // date terms contradict each other
+        final List<String> words = new ArrayList<>();
+        String driverWord = null;
+        final List<String> residualDescription = new ArrayList<>();
+        Predicate<Task> residual = t -> true;
+
+        Query(String source) {
+            this.source = source;
+        }
+
+        /** Matching tasks in date order, produced lazily. */
+        public Stream<Task> stream() {
+            if (empty) {
+                return Stream.empty();
+            }
+            if (driverWord == null) {
+                return TaskQuery.stream(from, to, residual);
+            }
+            // Word index seek: only dates whose text contains the driver word
+            TaskManager.awaitLoaded();
+            List<LocalDate> dates = TaskIndex.datesWithWord(driverWord, from, to);
+            Iterator<LocalDate> it = dates.iterator();
+            Iterator<Task> tasks = new Iterator<Task>() {
+                private Task next = advance();
+
+                private Task advance() {
+                    while (it.hasNext()) {
+                        Task task = TaskIndex.get(it.next());
+                        if (task != null && residual.test(task)) {
+                            return task;
+                        }
+                    }
+                    return null;
+                }
+
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                public Task next() {
+                    Task current = next;
+                    next = advance();
+                    return current;
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(tasks, Spliterator.ORDERED), false);
+        }
+
+        /** How the query will run, for the console and for debugging. */
+        public String explain() {
+            if (empty) {
+                return "no results: date terms do not overlap";
+            }
+            String range = "dates " + (from == null ? "-inf" : from) + " .. " + (to == null ? "+inf" : to);
+            String scan = driverWord == null ? "range scan over tasks" : "word index '" + driverWord + "'";
+            String rest = residualDescription.isEmpty() ? "none" : String.join(", ", residualDescription);
+            return scan + ", " + range + ", per-task check: " + rest;
+        }
+    }
+
+    /** Parse and plan a query. Throws IllegalArgumentException with a readable message on bad input. */
+    public static Query compile(String text) {
+        Query query = new Query(text);
+        List<Predicate<Task>> checks = new ArrayList<>();
+
+        for (String token : tokenize(text)) {
+            boolean negate = token.startsWith("-") && token.length() > 1;
+            String term = negate ? token.substring(1) : token;
+            int colon = term.indexOf(':');
+            String key = colon > 0 && !term.startsWith("\"") ? term.substring(0, colon).toLowerCase(Locale.ROOT) : "text";
+            String value = colon > 0 && !term.startsWith("\"") ? term.substring(colon + 1) : term;
+
+            try {
+                switch (key) {
+                    case "on": case "after": case "before": case "from": case "to": case "month": case "year": {
+                        LocalDate lo;
+                        LocalDate hi;
+                        if (key.equals("month")) {
+                            YearMonth month = YearMonth.parse(value);
+                            lo = month.atDay(1);
+                            hi = month.atEndOfMonth();
+                        } else if (key.equals("year")) {
+                            int year = Integer.parseInt(value);
+                            lo = LocalDate.of(year, 1, 1);
+                            hi = LocalDate.of(year, 12, 31);
+                        } else {
+                            LocalDate date = LocalDate.parse(value);
+                            lo = key.equals("after") ? date.plusDays(1) : key.equals("before") || key.equals("to") ? null : date;
+                            hi = key.equals("before") ? date.minusDays(1) : key.equals("after") || key.equals("from") ? null : date;
+                        }
+                        if (negate) {
+                            LocalDate a = lo;
+                            LocalDate b = hi;
+                            checks.add(t -> !((a == null || !t.date.isBefore(a)) && (b == null || !t.date.isAfter(b))));
+                            query.residualDescription.add(token);
+                        } else {
+                            narrow(query, lo, hi);
+                        }
+                        break;
+                    }
+                    case "priority": {
+                        Task.Priority priority = Task.Priority.valueOf(value.toUpperCase(Locale.ROOT));
+                        checks.add(t -> (t.priority == priority) != negate);
+                        query.residualDescription.add(token);
+                        break;
+                    }
+                    case "status": {
+                        Task.Status status = Task.Status.valueOf(value.toUpperCase(Locale.ROOT));
+                        checks.add(t -> (t.status == status) != negate);
+                        query.residualDescription.add(token);
+                        break;
+                    }
+                    case "tag": {
+                        checks.add(t -> t.tags.contains(value) != negate);
+                        query.residualDescription.add(token);
+                        break;
+                    }
+                    case "text": {
+                        if (value.startsWith("\"")) {
+                            String phrase = value.replace("\"", "").toLowerCase(Locale.ROOT);
+                            checks.add(t -> t.text.toLowerCase(Locale.ROOT).contains(phrase) != negate);
+                            query.residualDescription.add(token);
+                            if (!negate) {
+                                query.words.addAll(TaskIndex.words(phrase));  // each word must be present too
+                            }
+                        } else {
+                            Set<String> words = TaskIndex.words(value);
+                            if (negate) {
+                                checks.add(t -> !TaskIndex.words(t.text).containsAll(words));
+                                query.residualDescription.add(token);
+                            } else {
+                                query.words.addAll(words);
+                            }
+                        }
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException("Unknown search term: " + token);
+                }
+            } catch (DateTimeException | NumberFormatException e) {
+                throw new IllegalArgumentException("Bad value in '" + token + "'");
+            } catch (IllegalArgumentException e) {
+                if (e.getMessage() != null && e.getMessage().startsWith("Unknown search term")) {
+                    throw e;
+                }
+                throw new IllegalArgumentException("Bad value in '" + token + "'");
+            }
+        }
+
+        // The rarest word drives the scan; the other words become residual checks
+        int best = Integer.MAX_VALUE;
+        for (String word : query.words) {
+            int count = TaskIndex.wordCount(word);
+            if (count < best) {
+                best = count;
+                query.driverWord = word;
+            }
+        }
+        for (String word : query.words) {
+            if (!word.equals(query.driverWord)) {
+                checks.add(t -> TaskIndex.words(t.text).contains(word));
+                query.residualDescription.add("word '" + word + "'");
+            }
+        }
+
+        query.residual = t -> {
+            for (Predicate<Task> check : checks) {
+                if (!check.test(t)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+        return query;
+    }
+
+    /** Intersect the query's date range with [lo, hi] (nulls are open ends). */
+    private static void narrow(Query query, LocalDate lo, LocalDate hi) {
+        if (lo != null && (query.from == null || lo.isAfter(query.from))) {
+            query.from = lo;
+        }
+        if (hi != null && (query.to == null || hi.isBefore(query.to))) {
+            query.to = hi;
+        }
+        if (query.from != null && query.to != null && query.from.isAfter(query.to)) {
+            query.empty = true;
+        }
+    }
+
+    /** Split on spaces, keeping "quoted phrases" (optionally after text: or -) together. */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (char c : text.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+                current.append(c);
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (current.length() > 0) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+            } else {
+                current.append(c);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    /** Console helper: compile, show the plan and print every match. */
+    public static void printResults(String text) {
+        Query query;
+        try {
+            query = compile(text);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        System.out.println("Plan: " + query.explain());
+        long[] count = {0};
+        query.stream().forEach(t -> {
+            System.out.println(t);
+            count[0]++;
+        });
+        System.out.println(count[0] + " task(s) found.");
+    }
+}
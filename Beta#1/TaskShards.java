@@ -0,0 +1,140 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Month-sharded task storage: one file per month plus a small manifest.
+ *
+ *   tasks.d/manifest          "yyyy-MM count" per non-empty month
+ *   tasks.d/2025/2025-01.tsk  that month's tasks, plain or compressed (TaskFileFormat)
+ *
+ * Saving rewrites only the months that changed, and a month view can be
+ * served by reading just its shard. Every shard and the manifest are read
+ * under a shared FileChannel lock and written under an exclusive one, so
+ * several processes can save different months at the same time; the
+ * manifest is re-read under its lock and only the saved months are updated.
+ */
+public class TaskShards {
+    static final String DIR = "tasks.d";
+    private static final String MANIFEST = "manifest";
+
+    /** True if a sharded store exists in the working directory. */
+    public static boolean exists() {
+        return Files.exists(Paths.get(DIR, MANIFEST));
+    }
+
+    static Path shardPath(YearMonth month) {
+        return Paths.get(DIR, String.valueOf(month.getYear()), month + ".tsk");
+    }
+
+    /** Months with tasks and their task counts, ascending. Empty if there is no store. */
+    public static TreeMap<YearMonth, Integer> readManifest() throws IOException {
+        Path path = Paths.get(DIR, MANIFEST);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.lock(0, Long.MAX_VALUE, true);  // released when the channel closes
+            return parseManifest(readAll(channel));
+        } catch (NoSuchFileException e) {
+            return new TreeMap<>();
+        }
+    }
+
+    /**
+     * Stream one month's tasks to the handler. A month without a shard has no tasks.
+     * Returns true if the shard is compressed.
+     */
+    public static boolean readShard(YearMonth month, TaskFileFormat.Handler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(shardPath(month), StandardOpenOption.READ)) {
+            channel.lock(0, Long.MAX_VALUE, true);
+            return TaskFileFormat.read(Channels.newInputStream(channel), handler);
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            return false;
+        }
+    }
+
+    /** Replace one month's shard with the given entries (all dated in that month). */
+    public static void writeShard(YearMonth month, Iterable<Map.Entry<LocalDate, String>> entries, boolean compressed)
+            throws IOException {
+        Path path = shardPath(month);
+        Files.createDirectories(path.getParent());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.lock();
+            channel.truncate(0);
+            TaskFileFormat.write(Channels.newOutputStream(channel), entries, compressed);
+            channel.force(false);
+        }
+    }
+
+    /** Remove an emptied month's shard (under its lock, so no reader sees it half-gone). */
+    public static void deleteShard(YearMonth month) throws IOException {
+        Path path = shardPath(month);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.lock();
+            Files.delete(path);
+        } catch (NoSuchFileException e) {
+            // Already gone
+        }
+    }
+
+    /**
+     * Record new task counts for the given months (0 removes a month), keeping
+     * every other month as another process may have just written it.
+     */
+    public static void updateManifest(Map<YearMonth, Integer> counts) throws IOException {
+        Files.createDirectories(Paths.get(DIR));
+        Path path = Paths.get(DIR, MANIFEST);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            channel.lock();
+            TreeMap<YearMonth, Integer> manifest = parseManifest(readAll(channel));
+            for (Map.Entry<YearMonth, Integer> entry : counts.entrySet()) {
+                if (entry.getValue() > 0) {
+                    manifest.put(entry.getKey(), entry.getValue());
+                } else {
+                    manifest.remove(entry.getKey());
+                }
+            }
+            StringBuilder out = new StringBuilder();
+            for (Map.Entry<YearMonth, Integer> entry : manifest.entrySet()) {
+                out.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+            }
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(out.toString().getBytes(StandardCharsets.UTF_8)), 0);
+            channel.force(false);
+        }
+    }
+
+    private static String readAll(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+            // keep reading until full
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    private static TreeMap<YearMonth, Integer> parseManifest(String text) {
+        TreeMap<YearMonth, Integer> manifest = new TreeMap<>();
+        for (String line : text.split("\n")) {
+            String[] parts = line.trim().split(" ");
+            if (parts.length == 2) {
+                try {
+                    manifest.put(YearMonth.parse(parts[0]), Integer.parseInt(parts[1]));
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping bad manifest line: " + line);
+                }
+            }
+        }
+        return manifest;
+    }
+}
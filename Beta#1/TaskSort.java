@@ -0,0 +1,299 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts and de-duplicates a task file of any size in bounded memory.
+ *
+ * Tasks are read (plain or compressed) into a buffer until it reaches the
+ * memory budget; the buffer is sorted by date, then text, and spilled to a
+ * temporary run file. The runs are then merged k ways with a heap, dropping
+ * lines identical to the one just written, at most MAX_FAN_IN runs at a
+ * time (more runs are merged in several passes). The output is date-ordered,
+ * which is what lets TaskManager serve early months before a load finishes
+ * and keeps compressed date deltas small.
+ *
+ * Usage: java TaskSort <input> <output> [--memory MB] [--compressed]
+ * The output may be the input file; it is replaced only once complete.
+ */
+public class TaskSort {
+    private static final int MAX_FAN_IN = 64;
+    private static final Comparator<Map.Entry<LocalDate, String>> ORDER =
+            Map.Entry.<LocalDate, String>comparingByKey().thenComparing(Map.Entry.comparingByValue());
+
+    private final long memoryBudget;
+    private final Path tempDir;
+    private final List<Path> runs = new ArrayList<>();
+    private long read = 0;
+    private long bad = 0;
+    private long written = 0;
+    private int runCount = 0;
+    private int passes = 0;
+
+    private TaskSort(long memoryBudget, Path tempDir) {
+        this.memoryBudget = memoryBudget;
+        this.tempDir = tempDir;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java TaskSort <input> <output> [--memory MB] [--compressed]");
+            return;
+        }
+        long memoryMb = 64;
+        boolean compressed = false;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--memory": memoryMb = Long.parseLong(args[++i]); break;
+                case "--compressed": compressed = true; break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+
+        long start = System.nanoTime();
+        Path output = Paths.get(args[1]).toAbsolutePath();
+        Path tempDir = Files.createTempDirectory(output.getParent(), "tasksort");
+        TaskSort sort = new TaskSort(memoryMb << 20, tempDir);
+        try {
+            sort.spillRuns(args[0]);
+            sort.mergeDown();
+            sort.writeOutput(args[1], compressed);
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(tempDir);
+        }
+        System.out.printf("%d tasks read (%d bad lines skipped), %d runs, %d merge passes, %d duplicates removed,"
+                        + " %d written in %.1f s%n", sort.read, sort.bad, sort.runCount, sort.passes,
+                sort.read - sort.written, sort.written, (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    /** Phase 1: fill the buffer up to the budget, sort, spill; repeat. */
+    private void spillRuns(String input) throws IOException {
+        List<Map.Entry<LocalDate, String>> buffer = new ArrayList<>();
+        long[] used = {0};
+        try {
+            TaskFileFormat.read(input, new TaskFileFormat.Handler() {
+                public void task(LocalDate date, String text) {
+                    buffer.add(new AbstractMap.SimpleImmutableEntry<>(date, text));
+                    read++;
+                    used[0] += entryBytes(text);
+                    if (used[0] >= memoryBudget) {
+                        spill(buffer);
+                        used[0] = 0;
+                    }
+                }
+
+                public void invalidDate(String line) {
+                    bad++;
+                }
+
+                public void malformedLine(String line) {
+                    bad++;
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();  // from spill()
+        }
+        if (!buffer.isEmpty() || runs.isEmpty()) {
+            spill(buffer);
+        }
+        runCount = runs.size();
+    }
+
+    /** Estimated heap bytes one buffered task costs: entry, date, text and its list slot. */
+    private static long entryBytes(String text) {
+        return MemoryFootprint.align(MemoryFootprint.HEADER + 2 * MemoryFootprint.REF) + MemoryFootprint.LOCAL_DATE
+                + MemoryFootprint.string(text) + MemoryFootprint.REF;
+    }
+
+    private void spill(List<Map.Entry<LocalDate, String>> buffer) {
+        buffer.sort(ORDER);
+        try {
+            runs.add(writeRun(dedupe(buffer.iterator())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    private Path writeRun(Iterator<Map.Entry<LocalDate, String>> sorted) throws IOException {
+        Path run = tempDir.resolve("run-" + runs.size() + "-" + passes + ".txt");
+        try (BufferedWriter out = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+            while (sorted.hasNext()) {
+                Map.Entry<LocalDate, String> entry = sorted.next();
+                out.write(entry.getKey() + "|" + entry.getValue());
+                out.newLine();
+            }
+        }
+        return run;
+    }
+
+    /** Phase 2: while there are too many runs to open at once, merge them in groups. */
+    private void mergeDown() throws IOException {
+        while (runs.size() > MAX_FAN_IN) {
+            passes++;
+            List<Path> group = new ArrayList<>(runs.subList(0, MAX_FAN_IN));
+            runs.subList(0, MAX_FAN_IN).clear();
+            List<BufferedReader> readers = open(group);
+            try {
+                runs.add(writeRun(dedupe(merge(readers))));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                close(readers);
+            }
+            for (Path run : group) {
+                Files.delete(run);
+            }
+        }
+    }
+
+    /** Phase 3: the final merge, streamed straight into the output file. */
+    private void writeOutput(String output, boolean compressed) throws IOException {
+        passes++;
+        List<BufferedReader> readers = open(runs);
+        try {
+            Iterator<Map.Entry<LocalDate, String>> merged = dedupe(merge(readers));
+            TaskFileFormat.write(output, () -> new Iterator<Map.Entry<LocalDate, String>>() {
+                public boolean hasNext() {
+                    return merged.hasNext();
+                }
+
+                public Map.Entry<LocalDate, String> next() {
+                    written++;
+                    return merged.next();
+                }
+            }, compressed);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            close(readers);
+        }
+    }
+
+    private static List<BufferedReader> open(List<Path> files) throws IOException {
+        List<BufferedReader> readers = new ArrayList<>();
+        try {
+            for (Path file : files) {
+                readers.add(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            close(readers);
+            throw e;
+        }
+        return readers;
+    }
+
+    private static void close(List<BufferedReader> readers) {
+        for (BufferedReader reader : readers) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // temp file, about to be deleted
+            }
+        }
+    }
+
+    /** The head line of one run, kept in the merge heap. */
+    private static class Cursor {
+        final BufferedReader reader;
+        Map.Entry<LocalDate, String> head;
+
+        Cursor(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        /** Move to the next line; false at the end of the run. */
+        boolean advance() {
+            try {
+                String line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+                int bar = line.indexOf('|');
+                head = new AbstractMap.SimpleImmutableEntry<>(LocalDate.parse(line.substring(0, bar)),
+                        line.substring(bar + 1));
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** K-way merge of sorted runs: a heap of one cursor per run, smallest head first. */
+    private static Iterator<Map.Entry<LocalDate, String>> merge(List<BufferedReader> readers) {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, readers.size()),
+                (a, b) -> ORDER.compare(a.head, b.head));
+        for (BufferedReader reader : readers) {
+            Cursor cursor = new Cursor(reader);
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        return new Iterator<Map.Entry<LocalDate, String>>() {
+            public boolean hasNext() {
+                return !heap.isEmpty();
+            }
+
+            public Map.Entry<LocalDate, String> next() {
+                Cursor smallest = heap.poll();
+                if (smallest == null) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<LocalDate, String> entry = smallest.head;
+                if (smallest.advance()) {
+                    heap.add(smallest);
+                }
+                return entry;
+            }
+        };
+    }
+
+    /** Drops entries equal to the one before (input must be sorted). */
+    private static Iterator<Map.Entry<LocalDate, String>> dedupe(Iterator<Map.Entry<LocalDate, String>> sorted) {
+        return new Iterator<Map.Entry<LocalDate, String>>() {
+            private Map.Entry<LocalDate, String> next = sorted.hasNext() ? sorted.next() : null;
+
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            public Map.Entry<LocalDate, String> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<LocalDate, String> current = next;
+                next = null;
+                while (sorted.hasNext()) {
+                    Map.Entry<LocalDate, String> candidate = sorted.next();
+                    if (!candidate.equals(current)) {
+                        next = candidate;
+                        break;
+                    }
+                }
+                return current;
+            }
+        };
+    }
+}
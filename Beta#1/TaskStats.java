@@ -0,0 +1,251 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Activity statistics over task dates.
+ *
+ * Keeps a count per day (indexed by epoch day) in a Fenwick tree, so the
+ * number of tasks between any two dates is answered in O(log n) without
+ * looking at the task map. Kept up to date from TaskManager's change events,
+ * and rebuilt once after a load.
+ */
+public class TaskStats {
+    private static final int MIN_DAYS = 366 * 8;
+    // Largest array span: years 1-9999 with room to spare, far below int overflow
+    private static final int MAX_DAYS = 366 * 20_000;
+
+    private static long baseDay = 0;            // epoch day of slot 0
+    private static int[] counts = new int[0];  // plain per-day counts
+    private static int[] tree = new int[1];    // Fenwick tree over counts, 1-based
+    private static int total = 0;
+
+    /** Rebuild everything from a set of task dates, in O(n). */
+    static synchronized void rebuild(Collection<LocalDate> dates) {
+        counts = new int[0];
+        tree = new int[1];
+        total = 0;
+        if (dates.isEmpty()) {
+            return;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (LocalDate date : dates) {
+            min = Math.min(min, date.toEpochDay());
+            max = Math.max(max, date.toEpochDay());
+        }
+        resize(min, max);
+        for (LocalDate date : dates) {
+            counts[(int) (date.toEpochDay() - baseDay)]++;
+        }
+        total = dates.size();
+        buildTree();
+    }
+
+    /** TaskManager listener: adjust the count of each changed day, or rebuild after a load. */
+    static synchronized void tasksChanged(List<TaskEvent> events) {
+        for (TaskEvent event : events) {
+            if (event.type == TaskEvent.Type.RELOADED) {
+                rebuild(TaskManager.getTasks().keySet());
+            } else if (event.type == TaskEvent.Type.ADDED) {
+                taskAdded(event.date);
+            } else if (event.type == TaskEvent.Type.REMOVED) {
+                taskRemoved(event.date);
+            }
+        }
+    }
+
+    static synchronized void taskAdded(LocalDate date) {
+        update(date, 1);
+    }
+
+    static synchronized void taskRemoved(LocalDate date) {
+        update(date, -1);
+    }
+
+    /** Heap estimate: the per-day counts and the Fenwick tree over them. */
+    static synchronized MemoryFootprint.Item footprint() {
+        return new MemoryFootprint.Item("Stats (Fenwick tree)", counts.length, 0, 0,
+                MemoryFootprint.array(counts.length * 4L) + MemoryFootprint.array(tree.length * 4L));
+    }
+
+    /** Number of tasks from 'from' to 'to', both inclusive. O(log n). */
+    public static synchronized int countBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || counts.length == 0) {
+            return 0;
+        }
+        return prefix(to.toEpochDay()) - prefix(from.toEpochDay() - 1);
+    }
+
+    public static int countOn(LocalDate date) {
+        return countBetween(date, date);
+    }
+
+    public static int countInMonth(YearMonth month) {
+        return countBetween(month.atDay(1), month.atEndOfMonth());
+    }
+
+    /** Tasks in the Sunday-to-Saturday week that contains the date. */
+    public static int countInWeek(LocalDate date) {
+        LocalDate sunday = date.minusDays(date.getDayOfWeek().getValue() % 7);
+        return countBetween(sunday, sunday.plusDays(6));
+    }
+
+    public static int countInYear(int year) {
+        return countBetween(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+    }
+
+    public static synchronized int total() {
+        return total;
+    }
+
+    /** The k busiest months of a year, busiest first (ties keep calendar order). */
+    public static List<YearMonth> busiestMonths(int year, int k) {
+        List<YearMonth> months = new ArrayList<>();
+        for (int m = 1; m <= 12; m++) {
+            months.add(YearMonth.of(year, m));
+        }
+        months.sort((a, b) -> Integer.compare(countInMonth(b), countInMonth(a)));
+        return months.subList(0, Math.min(k, months.size()));
+    }
+
+    /**
+     * Prints month totals, the busiest months and a GitHub-style heatmap for
+     * one year: a row per weekday, a column per week, darker = more tasks.
+     */
+    public static void printYearReport(int year) {
+        System.out.println("\n===== Activity " + year + " =====");
+        System.out.println("Total tasks: " + countInYear(year));
+        for (Month month : Month.values()) {
+            System.out.printf("%-10s %5d%n", month.getDisplayName(TextStyle.FULL, Locale.ENGLISH),
+                    countInMonth(YearMonth.of(year, month)));
+        }
+        StringBuilder busiest = new StringBuilder("Busiest months:");
+        for (YearMonth month : busiestMonths(year, 3)) {
+            busiest.append(' ').append(month.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH))
+                    .append(" (").append(countInMonth(month)).append(')');
+        }
+        System.out.println(busiest);
+        System.out.print(renderHeatmap(year));
+    }
+
+    /** The yearly heatmap as text. Levels: '.' none, then '-' '+' '*' '#' increasing. */
+    public static String renderHeatmap(int year) {
+        final char[] levels = {'.', '-', '+', '*', '#'};
+        LocalDate first = LocalDate.of(year, 1, 1);
+        LocalDate last = LocalDate.of(year, 12, 31);
+        // Start the grid on the Sunday on or before Jan 1, like displayCalendar's weeks
+        LocalDate start = first.minusDays(first.getDayOfWeek().getValue() % 7);
+        int weeks = (int) ((last.toEpochDay() - start.toEpochDay()) / 7) + 1;
+
+        int[][] grid = new int[7][weeks];
+        int max = 0;
+        for (int w = 0; w < weeks; w++) {
+            for (int d = 0; d < 7; d++) {
+                LocalDate date = start.plusDays(w * 7L + d);
+                int count = date.getYear() == year ? countOn(date) : -1;
+                grid[d][w] = count;
+                max = Math.max(max, count);
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        // Month labels over the week where each month starts
+        char[] labels = new char[weeks + 4];
+        Arrays.fill(labels, ' ');
+        for (Month month : Month.values()) {
+            int week = (int) ((LocalDate.of(year, month, 1).toEpochDay() - start.toEpochDay()) / 7);
+            String name = month.getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+            for (int i = 0; i < name.length() && week + i < labels.length; i++) {
+                labels[week + i] = name.charAt(i);
+            }
+        }
+        out.append("    ").append(new String(labels).replaceAll("\\s+$", "")).append('\n');
+
+        DayOfWeek[] rows = {DayOfWeek.SUNDAY, DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+                DayOfWeek.THURSDAY, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY};
+        for (int d = 0; d < 7; d++) {
+            out.append(rows[d].getDisplayName(TextStyle.SHORT, Locale.ENGLISH)).append(' ');
+            for (int w = 0; w < weeks; w++) {
+                int count = grid[d][w];
+                if (count < 0) {
+                    out.append(' ');  // outside the year
+                } else if (count == 0) {
+                    out.append(levels[0]);
+                } else {
+                    int level = max <= 1 ? 4 : 1 + (int) ((long) (count - 1) * 4 / max);
+                    out.append(levels[Math.min(level, 4)]);
+                }
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void update(LocalDate date, int delta) {
+        long day = date.toEpochDay();
+        if (counts.length == 0 || day < baseDay || day >= baseDay + counts.length) {
+            long min = counts.length == 0 ? day : Math.min(day, baseDay);
+            long max = counts.length == 0 ? day : Math.max(day, baseDay + counts.length - 1);
+            resize(min, max);
+            buildTree();
+        }
+        int index = (int) (day - baseDay);
+        counts[index] += delta;
+        total += delta;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /** Sum of counts for every day up to and including 'day'. */
+    private static int prefix(long day) {
+        long index = Math.min(day - baseDay + 1, counts.length);
+        int sum = 0;
+        for (int i = (int) index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Make the arrays cover [min, max] with room to grow on both sides (less
+     * room near MAX_DAYS). Throws, leaving the arrays as they were, if the
+     * dates are more than MAX_DAYS apart.
+     */
+    private static void resize(long min, long max) {
+        long needed = max - min + 1;
+        if (needed > MAX_DAYS) {
+            throw new IllegalArgumentException("Task dates span " + needed + " days, more than " + MAX_DAYS);
+        }
+        long span = Math.min(MAX_DAYS, Math.max(MIN_DAYS, needed * 2));
+        long newBase = min - (span - needed) / 2;
+        int[] newCounts = new int[(int) span];
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                newCounts[(int) (baseDay + i - newBase)] = counts[i];
+            }
+        }
+        baseDay = newBase;
+        counts = newCounts;
+    }
+
+    /** Build the Fenwick tree from counts in O(n). */
+    private static void buildTree() {
+        tree = new int[counts.length + 1];
+        for (int i = 1; i <= counts.length; i++) {
+            tree[i] += counts[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= counts.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Two-way sync between two task files using per-month hashes.
+ *
+ * Each file is summarised as a small Merkle tree: one hash per (year, month)
+ * bucket, one per year over its months, and a root over the years. Two files
+ * are compared top-down by hashes only, so identical years are skipped
+ * without looking at their tasks. Only the months whose hashes differ are
+ * merged, three-way against the base (the result of the last sync).
+ *
+ * Month hashes are cached next to each file (file.mhash) and reused while the
+ * file's size and modification time are unchanged, so files already in sync
+ * are not read at all. The hashes do not make a real sync cheap, though: a
+ * plain task file has no per-month index, so when any month differs each of
+ * the three files is read once in full. Then both files are rewritten in full
+ * and copied to the base.
+ *
+ * Usage: java TaskSync <local> <remote> [--base file] [--prefer local|remote|both]
+ *   --base    result of the previous sync (default: <local>.syncbase)
+ *   --prefer  who wins when both sides changed the same date (default: both, texts joined)
+ */
+public class TaskSync {
+
+    /** Per-month hashes plus the derived year and root hashes. */
+    public static class MerkleSummary {
+        final TreeMap<YearMonth, Long> months;
+        final TreeMap<Integer, Long> years = new TreeMap<>();
+        final long root;
+
+        MerkleSummary(TreeMap<YearMonth, Long> months) {
+            this.months = months;
+            for (Map.Entry<YearMonth, Long> entry : months.entrySet()) {
+                years.merge(entry.getKey().getYear(), mix(entry.getKey().getMonthValue(), entry.getValue()), TaskSync::combine);
+            }
+            long r = 0;
+            for (Map.Entry<Integer, Long> entry : years.entrySet()) {
+                r = combine(r, mix(entry.getKey(), entry.getValue()));
+            }
+            root = r;
+        }
+
+        /** Months whose hashes differ, descending only into years that differ. */
+        Set<YearMonth> diff(MerkleSummary other) {
+            Set<YearMonth> changed = new TreeSet<>();
+            if (root == other.root) {
+                return changed;
+            }
+            Set<Integer> allYears = new TreeSet<>(years.keySet());
+            allYears.addAll(other.years.keySet());
+            for (int year : allYears) {
+                if (Objects.equals(years.get(year), other.years.get(year))) {
+                    continue;
+                }
+                for (int m = 1; m <= 12; m++) {
+                    YearMonth month = YearMonth.of(year, m);
+                    if (!Objects.equals(months.get(month), other.months.get(month))) {
+                        changed.add(month);
+                    }
+                }
+            }
+            return changed;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java TaskSync <local> <remote> [--base file] [--prefer local|remote|both]");
+            return;
+        }
+        String local = args[0];
+        String remote = args[1];
+        String base = local + ".syncbase";
+        String prefer = "both";
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--base")) {
+                base = args[++i];
+            } else if (args[i].equals("--prefer")) {
+                prefer = args[++i];
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                return;
+            }
+        }
+        sync(local, remote, base, prefer);
+    }
+
+    /** Sync two files in place and record the result as the new base. */
+    public static void sync(String local, String remote, String base, String prefer) throws IOException {
+        long start = System.nanoTime();
+        MerkleSummary a = summary(local);
+        MerkleSummary b = summary(remote);
+        Set<YearMonth> changed = a.diff(b);
+        if (changed.isEmpty()) {
+            if (!Files.exists(Paths.get(base)) && Files.exists(Paths.get(local))) {
+                // First sync of identical files: remember them as the base
+                Files.copy(Paths.get(local), Paths.get(base));
+                writeCache(base, a.months);
+            }
+            System.out.printf("Already in sync (%d months compared by hash) in %.1f ms%n",
+                    a.months.size(), (System.nanoTime() - start) / 1_000_000.0);
+            return;
+        }
+
+        // One read per file: the changed months to merge, and the rest to write back unchanged
+        SplitFile localFile = readSplit(local, changed);
+        SplitFile remoteFile = readSplit(remote, changed);
+        TreeMap<LocalDate, String> mine = localFile.changed;
+        TreeMap<LocalDate, String> theirs = remoteFile.changed;
+        TreeMap<LocalDate, String> ancestor = readSplit(base, changed).changed;
+
+        TreeMap<LocalDate, String> merged = new TreeMap<>();
+        int conflicts = 0;
+        Set<LocalDate> dates = new TreeSet<>(mine.keySet());
+        dates.addAll(theirs.keySet());
+        dates.addAll(ancestor.keySet());
+        for (LocalDate date : dates) {
+            String x = mine.get(date);
+            String y = theirs.get(date);
+            String o = ancestor.get(date);
+            String result;
+            if (Objects.equals(x, y)) {
+                result = x;
+            } else if (Objects.equals(x, o)) {
+                result = y;  // only the remote changed it
+            } else if (Objects.equals(y, o)) {
+                result = x;  // only we changed it
+            } else {
+                conflicts++;
+                if (prefer.equals("local")) {
+                    result = x != null ? x : y;
+                } else if (prefer.equals("remote")) {
+                    result = y != null ? y : x;
+                } else {
+                    result = x == null ? y : y == null ? x : x + "; " + y;
+                }
+            }
+            if (result != null) {
+                merged.put(date, result);
+            }
+        }
+
+        localFile.write(local, merged);
+        remoteFile.write(remote, merged);
+        Files.copy(Paths.get(local), Paths.get(base), StandardCopyOption.REPLACE_EXISTING);
+
+        // Both files now hold the same tasks: refresh their hash caches without rehashing
+        TreeMap<YearMonth, Long> months = new TreeMap<>(a.months);
+        months.keySet().removeAll(changed);
+        for (Map.Entry<LocalDate, String> entry : merged.entrySet()) {
+            months.merge(YearMonth.from(entry.getKey()), entryHash(entry.getKey(), entry.getValue()), TaskSync::combine);
+        }
+        writeCache(local, months);
+        writeCache(remote, months);
+        writeCache(base, months);
+
+        System.out.printf("Synced %d of %d months, %d tasks merged, %d conflicts, in %.1f ms%n",
+                changed.size(), months.size(), merged.size(), conflicts, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    /** Month hashes for a file, from the cache if the file has not changed since. */
+    public static MerkleSummary summary(String path) throws IOException {
+        Path file = Paths.get(path);
+        if (!Files.exists(file)) {
+            return new MerkleSummary(new TreeMap<>());
+        }
+        String stamp = Files.size(file) + " " + Files.getLastModifiedTime(file).toMillis();
+        Path cache = Paths.get(path + ".mhash");
+        if (Files.exists(cache)) {
+            try (BufferedReader reader = Files.newBufferedReader(cache, StandardCharsets.UTF_8)) {
+                if (stamp.equals(reader.readLine())) {
+                    TreeMap<YearMonth, Long> months = new TreeMap<>();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String[] parts = line.split(" ");
+                        months.put(YearMonth.parse(parts[0]), Long.parseUnsignedLong(parts[1], 16));
+                    }
+                    return new MerkleSummary(months);
+                }
+            } catch (RuntimeException e) {
+                // Corrupt cache: fall through and rehash
+            }
+        }
+
+        TreeMap<YearMonth, Long> months = new TreeMap<>();
+        TaskFileFormat.read(path, (date, text) -> months.merge(YearMonth.from(date), entryHash(date, text), TaskSync::combine));
+        writeCache(path, months);
+        return new MerkleSummary(months);
+    }
+
+    /** Save month hashes next to the file, stamped with its current size and modification time. */
+    private static void writeCache(String path, TreeMap<YearMonth, Long> months) throws IOException {
+        Path file = Paths.get(path);
+        String stamp = Files.size(file) + " " + Files.getLastModifiedTime(file).toMillis();
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(path + ".mhash"), StandardCharsets.UTF_8)) {
+            writer.write(stamp);
+            writer.newLine();
+            for (Map.Entry<YearMonth, Long> entry : months.entrySet()) {
+                writer.write(entry.getKey() + " " + Long.toHexString(entry.getValue()));
+                writer.newLine();
+            }
+        }
+    }
+
+    /** A task file read once, split into the tasks of some months and all the others. */
+    static class SplitFile {
+        final TreeMap<LocalDate, String> changed = new TreeMap<>();
+        final TreeMap<LocalDate, String> others = new TreeMap<>();
+        boolean compressed = false;
+
+        /** Rewrite the file as the other months plus 'replacement', keeping its format. */
+        void write(String path, TreeMap<LocalDate, String> replacement) throws IOException {
+            TreeMap<LocalDate, String> all = new TreeMap<>(others);
+            all.putAll(replacement);
+            TaskFileFormat.write(path, all.entrySet(), compressed);
+        }
+    }
+
+    /** Read a whole file, splitting off the tasks that fall in the given months. A missing file is empty. */
+    static SplitFile readSplit(String path, Set<YearMonth> months) throws IOException {
+        SplitFile file = new SplitFile();
+        try {
+            file.compressed = TaskFileFormat.read(path, (date, text) ->
+                    (months.contains(YearMonth.from(date)) ? file.changed : file.others).put(date, text));
+        } catch (FileNotFoundException e) {
+            // A missing file is an empty store (and is created when written)
+        }
+        return file;
+    }
+
+    /** Hash of one task; months combine these by addition so order does not matter. */
+    static long entryHash(LocalDate date, String text) {
+        long h = 0xcbf29ce484222325L;  // FNV-1a over the UTF-8 bytes
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(date.toEpochDay(), h);
+    }
+
+    private static long combine(long a, long b) {
+        return a + b;
+    }
+
+    /** Mixes a key into a hash (SplitMix64 finaliser) so equal hashes under different keys differ. */
+    private static long mix(long key, long hash) {
+        long z = hash + key * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the last frame that was drawn on an ANSI terminal and, for each new
+ * frame, only sends cursor moves plus the characters that actually changed.
+ * This keeps redraws small on slow remote terminals.
+ */
+public class TerminalRenderer {
+    private static final String ESC = "\u001b[";
+
+    private final int rows;
+    private final int cols;
+    private char[][] last = null;
+
+    public TerminalRenderer(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /** Forget the previous frame so the next render repaints everything. */
+    public void invalidate() {
+        last = null;
+    }
+
+    /**
+     * Returns the escape sequence needed to turn the last frame into the given one.
+     * Lines longer than the screen are cut off, missing lines are blank.
+     */
+    public String render(List<String> lines) {
+        char[][] next = new char[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            Arrays.fill(next[r], ' ');
+            if (r < lines.size()) {
+                String line = lines.get(r);
+                int n = Math.min(line.length(), cols);
+                line.getChars(0, n, next[r], 0);
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        if (last == null) {
+            // First frame: clear once and paint everything
+            out.append(ESC).append("2J").append(ESC).append("H");
+            for (int r = 0; r < rows; r++) {
+                out.append(ESC).append(r + 1).append(";1H");
+                out.append(trimRight(next[r]));
+            }
+        } else {
+            for (int r = 0; r < rows; r++) {
+                int c = 0;
+                while (c < cols) {
+                    if (next[r][c] == last[r][c]) {
+                        c++;
+                        continue;
+                    }
+                    // Collect a run of changed cells and send it with a single cursor move
+                    int start = c;
+                    while (c < cols && next[r][c] != last[r][c]) {
+                        c++;
+                    }
+                    out.append(ESC).append(r + 1).append(';').append(start + 1).append('H');
+                    out.append(next[r], start, c - start);
+                }
+            }
+        }
+        last = next;
+        return out.toString();
+    }
+
+    /**
+     * Marks one screen row (1-based) as unknown, e.g. after a prompt was typed
+     * there, so the next render repaints it.
+     */
+    public void markRowDirty(int row) {
+        if (last != null && row >= 1 && row <= rows) {
+            Arrays.fill(last[row - 1], '\0');
+        }
+    }
+
+    /** Moves the cursor to the start of a screen row (1-based) and clears it. */
+    public String moveToRow(int row) {
+        return ESC + row + ";1H" + ESC + "2K";
+    }
+
+    /** Clears the screen and homes the cursor. */
+    public static String clearScreen() {
+        return ESC + "2J" + ESC + "H";
+    }
+
+    private static String trimRight(char[] row) {
+        int end = row.length;
+        while (end > 0 && row[end - 1] == ' ') {
+            end--;
+        }
+        return new String(row, 0, end);
+    }
+}